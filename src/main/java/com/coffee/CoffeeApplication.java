@@ -2,7 +2,9 @@ package com.coffee;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling // @Scheduled 작업(사용하지 않는 이미지 파일 정리 등)을 실행합니다.
 @SpringBootApplication
 public class CoffeeApplication {
 
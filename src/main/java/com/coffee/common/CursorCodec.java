@@ -0,0 +1,40 @@
+package com.coffee.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// 커서(cursor) 기반 페이징에서 사용하는 '다음 페이지 커서' 문자열을 만들고 해석해주는 클래스입니다.
+// 클라이언트는 커서의 내용을 알 필요가 없으므로, 마지막으로 조회한 id를 Base64(URL 안전) 문자열로 감싸서 전달합니다.
+// 예시) 마지막 id가 125이면 "id:125" -> "aWQ6MTI1"
+public class CursorCodec {
+    private static final String PREFIX = "id:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        byte[] bytes = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 빈 문자열은 '첫 페이지'를 의미하며 null을 반환합니다.
+    // 잘못된 커서이면 IllegalArgumentException을 발생시킵니다.
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("올바르지 않은 커서입니다 : " + cursor);
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException err) { // NumberFormatException도 여기에 포함됩니다.
+            throw new IllegalArgumentException("올바르지 않은 커서입니다 : " + cursor, err);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.coffee.common;
+
+import java.util.Arrays;
+
+/*
+    long 키 -> int 값을 저장하는 해시 맵입니다.(동기화되지 않으므로 사용하는 쪽에서 잠금을 관리해야 합니다.)
+    HashMap<Long, Integer>는 항목마다 Long, Integer, Entry 객체를 만들지만, 이 클래스는 배열 2개에 바로 저장합니다.
+    충돌은 선형 탐사(linear probing)로 처리하며, 삭제 시에는 뒤쪽 항목을 당겨서 빈 칸 표시(tombstone)를 남기지 않습니다.
+*/
+public class LongIntHashMap {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    public int get(long key, int defaultValue) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : defaultValue;
+    }
+
+    public void put(long key, int value) {
+        int index = indexOf(key);
+        if (!used[index]) {
+            used[index] = true;
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+        growIfNeeded();
+    }
+
+    // 기존 값(없으면 0)에 delta를 더하고, 더한 결과를 반환합니다.
+    public int addTo(long key, int delta) {
+        int index = indexOf(key);
+        if (!used[index]) {
+            used[index] = true;
+            keys[index] = key;
+            values[index] = 0;
+            size++;
+        }
+        int result = values[index] += delta;
+        growIfNeeded();
+        return result;
+    }
+
+    public void remove(long key) {
+        int index = indexOf(key);
+        if (!used[index]) {
+            return;
+        }
+
+        // 삭제한 칸 뒤에 이어진 항목들 중, 원래 자리가 삭제한 칸 이전인 항목을 앞으로 당깁니다.
+        int mask = keys.length - 1;
+        int gap = index;
+        int next = (index + 1) & mask;
+        while (used[next]) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // 키가 있으면 키가 있는 칸, 없으면 키가 들어갈 빈 칸의 위치
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key);
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // 연속된 id가 한 곳에 몰리지 않도록 섞어 줍니다.
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private void growIfNeeded() {
+        if (size <= keys.length * LOAD_FACTOR) {
+            return;
+        }
+
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i]);
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,100 @@
+package com.coffee.common;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+    최대 개수(maxSize)와 유효 시간(ttl)을 가지고 있는 간단한 메모리 캐시입니다.
+    - 최대 개수를 넘으면 가장 오랫동안 사용되지 않은 항목(LRU)부터 제거합니다.
+    - 유효 시간이 지난 항목은 조회 시점에 제거하고 캐시 미스(miss)로 처리합니다.
+    - 캐시 적중(hit)/미스(miss)/제거(eviction) 횟수를 stats() 메소드로 확인할 수 있습니다.
+    모든 메소드는 synchronized로 처리되므로 여러 스레드에서 동시에 사용해도 됩니다.
+*/
+public class TtlLruCache<K, V> {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions; // 최대 개수 초과로 제거된 횟수
+    private long expirations; // 유효 시간 경과로 제거된 횟수
+
+    public TtlLruCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+
+        // accessOrder = true : 조회할 때마다 해당 항목을 맨 뒤(가장 최근)로 옮겨 줍니다.
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean remove = size() > TtlLruCache.this.maxSize;
+                if (remove) {
+                    evictions++;
+                }
+                return remove;
+            }
+        };
+    }
+
+    // 캐시에 없거나 유효 시간이 지났으면 null을 반환합니다.
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            map.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    // 캐시 사용 현황(모니터링 용도)
+    public synchronized Map<String, Object> stats() {
+        long requests = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", map.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.coffee.config;
 
+import com.coffee.constant.Role;
 import com.coffee.handler.CustomLoginFailureHandler;
 import com.coffee.handler.CustomLoginSuccessHandler;
 import org.springframework.context.annotation.Bean;
@@ -29,21 +30,27 @@ public class SecurityConfig {
 
         * */
         String[] permitAllowed = {"/", "/member/signup", "/member/login", "/product",
-                "/product/list", "/cart/**", "/order/**", "/fruit/**", "/element/**", "/images/**",
+                "/product/list", "/product/facets", "/product/suggest", "/cart/**", "/order/**", "/fruit/**", "/element/**", "/images/**",
                 "/index.html",        // React 메인 파일
                 "/static/**",         // 정적 파일(css, js 등)
                 "/assets/**",         // 빌드 결과 폴더에 따라 추가
                 "/favicon.ico",
                 "/manifest.json" } ;
 
-        String[] neededAuthenticated = {"/product/detail/**"} ;
+        // 로그인 정보로 회원을 확인하는 기능입니다.(permitAllowed의 "/order/**"보다 앞에 두어야 합니다.)
+        String[] neededAuthenticated = {"/product/detail/**", "/order/list"} ;
+
+        // 관리자(Role.ADMIN)만 사용할 수 있는 기능입니다.
+        // 주의) 먼저 일치하는 규칙이 적용되므로, permitAllowed의 "/order/**"보다 앞에 두어야 합니다.
+        String[] neededAdmin = {"/order/update/status", "/order/cancel", "/order/cancel/member/**", "/stats/**"} ;
 
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(permitAllowed).permitAll()
+                        .requestMatchers(neededAdmin).hasRole(Role.ADMIN.name())
                         .requestMatchers(neededAuthenticated).authenticated()
+                        .requestMatchers(permitAllowed).permitAll()
                         .anyRequest().authenticated()
                 );
 
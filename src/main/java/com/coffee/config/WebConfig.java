@@ -1,8 +1,6 @@
 package com.coffee.config;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -16,13 +14,5 @@ public class WebConfig implements WebMvcConfigurer {
 //                .allowCredentials(true) ; // 쿠키 전송 허용
 //    }
 
-    @Value("${uploadPath}")
-    private String uploadPath ; // file:///C:/shop/images/
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry
-                .addResourceHandler("/images/**")
-                .addResourceLocations(uploadPath);
-    }
+    // 상품 이미지(/images/**)는 캐시 헤더와 Range 요청을 직접 처리하기 위하여 ImageController에서 응답합니다.
 }
@@ -0,0 +1,35 @@
+package com.coffee.constant;
+
+// 상품 이미지의 크기별 변형(variant) 정보입니다.
+// 원본 이미지의 가로 길이가 width보다 크면, 가로 길이를 width로 줄인 이미지를 따로 만들어 둡니다.
+public enum ImageSize {
+    THUMB("thumb", 200), // 목록의 작은 썸네일
+    CARD("card", 480), // 상품 목록 카드
+    DETAIL("detail", 960) ; // 상품 상세 보기
+
+    private final String code ;
+    private final int width ;
+
+    ImageSize(String code, int width) {
+        this.code = code ;
+        this.width = width ;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // url에 사용되는 이름(thumb, card, detail)으로 찾습니다. 없으면 null을 반환합니다.
+    public static ImageSize fromCode(String code) {
+        for (ImageSize size : values()) {
+            if (size.code.equals(code)) {
+                return size ;
+            }
+        }
+        return null ;
+    }
+}
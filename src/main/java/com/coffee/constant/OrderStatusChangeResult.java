@@ -0,0 +1,8 @@
+package com.coffee.constant;
+
+// 여러 주문의 상태를 한번에 변경할 때, 주문 1건에 대한 처리 결과
+public enum OrderStatusChangeResult {
+    UPDATED, // 변경됨
+    SKIPPED_CANCELED, // 취소된 주문이라서 변경하지 않음
+    NOT_FOUND // 존재하지 않는 주문
+}
@@ -0,0 +1,167 @@
+package com.coffee.controller;
+
+import com.coffee.constant.ImageSize;
+import com.coffee.service.ImageVariantService;
+import com.coffee.service.ProductImageStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    상품 이미지 파일을 응답합니다.
+        /images/{파일 이름}        : 원본 이미지
+        /images/{크기}/{파일 이름}  : 크기별(thumb, card, detail) 이미지, 아직 없으면 원본 이미지
+
+    - 파일 이름이 내용의 해시 값(ProductImageStorage 참고)이면 url의 내용이 바뀌지 않으므로 1년 동안 캐시(immutable)합니다.
+      그 외(예전 방식의 파일 이름, 크기별 이미지 대신 보낸 원본)에는 매번 ETag/Last-Modified로 변경 여부를 확인합니다.
+    - Range 요청(이어 받기, 부분 요청)은 범위 1개만 지원합니다.(여러 범위를 요청하면 파일 전체를 보냅니다.)
+    - 파일 내용은 Tomcat의 sendfile(커널이 파일을 소켓으로 바로 복사)로 보내고, 지원하지 않으면 FileChannel.transferTo()로 보냅니다.
+*/
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+    // 64자리 16진수(SHA-256) + 확장자
+    private static final Pattern HASHED_NAME = Pattern.compile("([0-9a-f]{64})(_[a-z]+)?\\.[a-z0-9]+");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ProductImageStorage productImageStorage;
+
+    @GetMapping("/{fileName:[A-Za-z0-9_\\-]+\\.[A-Za-z0-9]+}")
+    public void getOriginal(@PathVariable String fileName,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = productImageStorage.getImageDirectory().resolve(fileName);
+        send(path, isHashedName(fileName), request, response);
+    }
+
+    @GetMapping("/{size:thumb|card|detail}/{fileName:[A-Za-z0-9_\\-]+\\.[A-Za-z0-9]+}")
+    public void getVariant(@PathVariable String size, @PathVariable String fileName,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 크기별 이미지가 아직 만들어지지 않았으면 원본 이미지를 대신 보냅니다.
+        // 이 때는 나중에 같은 url의 내용이 바뀌므로 영구 캐시하면 안됩니다.
+        ImageSize imageSize = ImageSize.fromCode(size);
+        Path path = imageVariantService.resolve(fileName, imageSize);
+        boolean isVariant = !path.getFileName().toString().equals(fileName);
+
+        send(path, isVariant && isHashedName(fileName), request, response);
+    }
+
+    private void send(Path requested, boolean immutable,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // ../ 등으로 이미지 폴더 밖의 파일을 요청하는 경우를 막습니다.
+        Path imageDirectory = productImageStorage.getImageDirectory().toAbsolutePath().normalize();
+        Path path = requested.toAbsolutePath().normalize();
+        if (!path.startsWith(imageDirectory) || !Files.isRegularFile(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String etag = createEtag(path, length, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue()
+                : CacheControl.noCache().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // If-None-Match / If-Modified-Since가 일치하면 304(Not Modified) 응답을 보냅니다.
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+
+        // 요청 범위 계산 : [start, end], 범위 요청이 아니면 파일 전체
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) { // bytes=-500 : 마지막 500바이트
+                    start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                } else {
+                    start = Long.parseLong(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, Long.parseLong(matcher.group(2)));
+                    }
+                }
+
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        // Tomcat(NIO)의 sendfile : 응답 본문을 직접 쓰지 않고, 파일 정보만 넘겨 주면 Tomcat이 커널에서 바로 전송합니다.
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", path.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1); // end는 포함하지 않습니다.
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = file.transferTo(position, end + 1 - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    // 해시 이름이면 내용이 바뀌지 않으므로 파일 이름으로, 그 외에는 크기와 수정 시각으로 ETag를 만듭니다.
+    private String createEtag(Path path, long length, long lastModified) {
+        String fileName = path.getFileName().toString();
+        if (isHashedName(fileName)) {
+            return "\"" + fileName + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private boolean isHashedName(String fileName) {
+        return HASHED_NAME.matcher(fileName).matches();
+    }
+}
@@ -1,42 +1,163 @@
 package com.coffee.controller;
 
+import com.coffee.common.CursorCodec;
 import com.coffee.constant.OrderStatus;
+import com.coffee.constant.OrderStatusChangeResult;
 import com.coffee.constant.Role;
 import com.coffee.dto.OrderDetailDto;
 import com.coffee.dto.OrderDto;
-import com.coffee.entity.Order;
+import com.coffee.dto.OrderSearchDto;
+import com.coffee.dto.OrderStatusBulkDto;
+import com.coffee.dto.SliceResponseDto;
+import com.coffee.entity.Member;
+import com.coffee.service.MemberService;
+import com.coffee.service.OrderIdempotencyService;
+import com.coffee.service.OrderPipelineService;
 import com.coffee.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/order")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final OrderPipelineService orderPipelineService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final MemberService memberService;
 
     /* 리액트에서 '주문하기' 버튼 클릭 시 호출되는 엔드포인트 */
+    // 응답 시간 초과 등으로 다시 보낼 수 있는 요청에는 Idempotency-Key 헤더(예: UUID)를 붙여 주세요.
+    // 같은 키로 다시 요청하면 주문을 새로 만들지 않고, 처음 만들어진 주문 번호를 응답합니다.(Idempotent-Replayed: true)
     @PostMapping("")
-    public ResponseEntity<?> order(@RequestBody OrderDto dto) {
+    public ResponseEntity<?> order(@RequestBody OrderDto dto,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         System.out.println("주문 요청 DTO: " + dto);
 
-        // 핵심 로직은 서비스로 위임
-        Order savedOrder = orderService.createOrder(dto);
+        try {
+            Long orderId;
+            boolean replayed = false;
+            if (idempotencyKey == null) {
+                orderId = placeOrder(dto);
+            } else {
+                OrderIdempotencyService.Result result =
+                        orderIdempotencyService.execute(dto.getMemberId(), idempotencyKey, dto, () -> placeOrder(dto));
+                orderId = result.getOrderId();
+                replayed = result.isReplayed();
+            }
 
-        String message = "주문이 완료되었습니다. 주문번호: " + savedOrder.getId();
-        return ResponseEntity.ok(message);
+            String message = "주문이 완료되었습니다. 주문번호: " + orderId;
+            return ResponseEntity.ok().header("Idempotent-Replayed", String.valueOf(replayed)).body(message);
+
+        } catch (IllegalArgumentException e) { // 회원/상품 없음, 잘못된 수량
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OrderPipelineService.PendingOrderException e) { // 아직 처리 중(실패가 아니므로 다시 주문하면 안됨)
+            if (e.getTicket() == null) { // 같은 Idempotency-Key의 처음 요청이 처리 중
+                return ResponseEntity.accepted().body(Map.of("message", e.getMessage()));
+            }
+            String ticket = e.getTicket().getId();
+            return ResponseEntity.accepted().body(Map.of("message", e.getMessage(), "ticket", ticket, "statusUrl", "/order/async/" + ticket));
+        } catch (IllegalStateException e) { // 재고 부족(주문 전체가 취소됨)
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // 핵심 로직은 서비스로 위임
+    // 주문 접수 대기열을 사용 중이면, 대기열에 넣고 처리가 끝날 때까지 기다립니다.(응답 형식은 동일)
+    private Long placeOrder(OrderDto dto) {
+        return orderPipelineService.isEnabled()
+                ? orderPipelineService.submitAndWait(dto, 10000)
+                : orderService.createOrder(dto).getId();
+    }
+
+    // 주문을 대기열에 넣고 처리를 기다리지 않고 바로 접수 번호를 응답합니다.(202 Accepted)
+    // 처리 결과는 /order/async/{접수 번호}로 조회합니다.(order.pipeline.enabled=true 일 때만 사용 가능)
+    @PostMapping("/async")
+    public ResponseEntity<?> orderAsync(@RequestBody OrderDto dto) {
+        if (!orderPipelineService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "주문 접수 대기열을 사용하지 않습니다."));
+        }
+
+        try {
+            OrderPipelineService.Ticket ticket = orderPipelineService.submit(dto);
+            return ResponseEntity.accepted().body(Map.of("ticket", ticket.getId(), "statusUrl", "/order/async/" + ticket.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) { // 대기열이 가득 참
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 대기열에 넣은 주문의 처리 결과를 조회합니다.(status : PENDING, COMPLETED, FAILED)
+    @GetMapping("/async/{ticket}")
+    public ResponseEntity<Map<String, Object>> orderAsyncStatus(@PathVariable String ticket) {
+        Map<String, Object> status = orderPipelineService.getStatus(ticket);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
     }
 
-    // 특정한 회원의 주문 정보를 최신 날짜 순으로 조회합니다.
-    // http://localhost:9000/order/list?memberId=회원아이디&role=USER
+    // 주문 접수 대기열의 처리량과 지연 시간 현황을 조회합니다.
+    @GetMapping("/pipeline/stats")
+    public ResponseEntity<Map<String, Object>> pipelineStats() {
+        return ResponseEntity.ok(orderPipelineService.stats());
+    }
+
+    // 로그인 한 회원의 주문 정보를 최신 날짜 순으로 조회합니다.(관리자는 전체 주문)
+    // 회원과 역할은 요청 파라미터가 아니라 로그인 정보(세션)에서 가져옵니다.(로그인 필요 - SecurityConfig 참고)
+    // http://localhost:9000/order/list
+    // cursor 파라미터가 넘어 오면 size개씩 커서 기반 페이징으로 조회합니다.(첫 페이지는 cursor= 처럼 빈 값을 넘겨 주세요.)
+    // http://localhost:9000/order/list?cursor=&size=20&status=ALL&fromDate=2025-10-01&toDate=2025-10-31&filterMemberId=3
+    //   - status : PENDING(기본 값), COMPLETED, CANCELED, ALL(전체)
+    //   - filterMemberId : 관리자가 특정 회원의 주문만 볼 때 사용합니다.(일반 사용자는 무시하고 항상 본인 주문만 조회)
     @GetMapping("/list") // 리액트의 OrderList.js 파일 내의 useEffect 참조
-    public ResponseEntity<List<OrderDetailDto>> getOrderList(@RequestParam Long memberId, @RequestParam Role role) {
+    public ResponseEntity<?> getOrderList(@AuthenticationPrincipal User user,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size,
+                                          @RequestParam(defaultValue = "PENDING") String status,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                          @RequestParam(required = false) Long filterMemberId) {
+        Member member = user == null ? null : memberService.findByEmail(user.getUsername()); // username은 email입니다.
+        if (member == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "로그인이 필요합니다."));
+        }
+
+        Long memberId = member.getId();
+        Role role = member.getRole();
+        if (role != Role.ADMIN) {
+            filterMemberId = null;
+        }
+
         System.out.println("로그인 한 사람의 id : " + memberId);
         System.out.println("로그인 한 사람 역할 : " + role);
 
+        if (cursor != null) { // 커서 기반 페이징 모드
+            try {
+                Long lastId = CursorCodec.decode(cursor);
+                OrderStatus orderStatus = "ALL".equalsIgnoreCase(status) ? null : OrderStatus.valueOf(status.toUpperCase());
+                int pageSize = Math.max(1, Math.min(size, 100)); // 한번에 최대 100건
+
+                OrderSearchDto search = new OrderSearchDto(orderStatus, filterMemberId, fromDate, toDate);
+                SliceResponseDto<OrderDetailDto> slice = orderService.getOrderSlice(memberId, role, search, lastId, pageSize);
+
+                return ResponseEntity.ok(slice);
+
+            } catch (IllegalArgumentException e) { // 잘못된 커서 또는 주문 상태
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+            }
+        }
+
         List<OrderDetailDto> responseDtos = orderService.getOrderListByRole(memberId, role);
 
         System.out.println("주문 건수 : " + responseDtos.size());
@@ -55,8 +176,27 @@ public class OrderController {
         return ResponseEntity.ok(message);
     }
 
+    // 관리자가 여러 주문의 상태를 한번에 변경합니다.(예: 오늘 주문을 모두 완료 처리, 관리자만 가능 - SecurityConfig 참고)
+    // 요청 본문 : {"orderIds": [1, 2, 3], "status": "COMPLETED"} 또는 {"fromId": 1, "toId": 500, "status": "COMPLETED"}
+    // 응답의 results : 송장 번호 -> UPDATED(변경됨), SKIPPED_CANCELED(취소된 주문), NOT_FOUND(없는 주문)
+    @PutMapping("/update/status")
+    public ResponseEntity<?> statusChangeInBulk(@RequestBody OrderStatusBulkDto dto){
+        try {
+            Map<Long, OrderStatusChangeResult> results = (dto.getOrderIds() != null && !dto.getOrderIds().isEmpty())
+                    ? orderService.updateOrderStatuses(dto.getOrderIds(), dto.getStatus())
+                    : orderService.updateOrderStatusesInRange(dto.getFromId(), dto.getToId(), dto.getStatus());
+
+            long updated = results.values().stream().filter(result -> result == OrderStatusChangeResult.UPDATED).count();
+            return ResponseEntity.ok(Map.of("status", dto.getStatus(), "updated", updated, "results", results));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     // `관리자` 또는 `당사자`가 주문에 대한 삭제 요청을 하였습니다.
     // 주문된 상품에 대한 `취소` 기능
+    // 주문을 삭제하지 않고 취소 상태로 변경합니다.(기존 클라이언트와의 호환을 위하여 주소는 유지합니다.)
     @DeleteMapping("/delete/{orderId}")
     public ResponseEntity<String> cancelOrder(@PathVariable Long orderId) {
 
@@ -66,6 +206,33 @@ public class OrderController {
             return ResponseEntity.ok(message);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) { // 이미 취소된 주문
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // 여러 주문을 한번에 취소합니다.(요청 본문 : 송장 번호 목록, 이미 취소된 주문과 없는 주문은 건너뜁니다.)
+    // 관리자만 가능합니다.(SecurityConfig 참고)
+    @PutMapping("/cancel")
+    public ResponseEntity<?> cancelOrders(@RequestBody List<Long> orderIds) {
+        try {
+            List<Long> canceled = orderService.cancelOrders(orderIds);
+            return ResponseEntity.ok(Map.of("canceled", canceled.size(), "orderIds", canceled));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) { // 재고를 복원할 수 없음(전체 취소되지 않음)
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 특정 회원의 주문 대기(PENDING) 중인 주문을 모두 취소합니다.(관리자만 가능)
+    @PutMapping("/cancel/member/{memberId}")
+    public ResponseEntity<?> cancelPendingOrdersOfMember(@PathVariable Long memberId) {
+        try {
+            List<Long> canceled = orderService.cancelPendingOrdersOfMember(memberId);
+            return ResponseEntity.ok(Map.of("canceled", canceled.size(), "orderIds", canceled));
+        } catch (IllegalStateException e) { // 재고를 복원할 수 없음(전체 취소되지 않음)
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
         }
     }
 }
@@ -1,23 +1,42 @@
 package com.coffee.controller;
 
+import com.coffee.common.CursorCodec;
 import com.coffee.constant.Category;
+import com.coffee.dto.PageResponseDto;
+import com.coffee.dto.ProductCardDto;
+import com.coffee.dto.ProductSuggestionDto;
 import com.coffee.dto.SearchDto;
+import com.coffee.dto.SliceResponseDto;
 import com.coffee.entity.Product;
+import com.coffee.service.CatalogVersionService;
+import com.coffee.service.HomeSnapshotService;
+import com.coffee.service.InventoryService;
+import com.coffee.service.ProductExportService;
+import com.coffee.service.ProductImageGarbageCollector;
 import com.coffee.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/product")
@@ -25,6 +44,18 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImageGarbageCollector productImageGarbageCollector;
+
+    @Autowired
+    private InventoryService inventoryService;
+
 //    @GetMapping("/list") // 상품 목록을 List 컬렉션으로 반환해 줍니다.
 //    public List<Product> list() {
 //        List<Product> products = this.productService.getProductList();
@@ -97,6 +128,65 @@ public class ProductController {
     }
 
 
+    // 상품 등록(multipart 방식)
+    // 이미지를 Base64 문자열로 json에 넣지 않고, 파일 그대로 업로드합니다.(이미지 크기의 약 3배 메모리를 사용하지 않습니다.)
+    // product : 상품 정보 json(Content-Type: application/json), imageFile : 이미지 파일
+    @PostMapping(value = "/insert", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> insertMultipart(@Valid @RequestPart("product") Product product,
+                                             BindingResult bindingResult,
+                                             @RequestPart("imageFile") MultipartFile imageFile) {
+        // 1. 유효성 검사 실패 시(이미지는 파일로 따로 받으므로 image 항목은 검사하지 않습니다.)
+        Map<String, String> errors = fieldErrorsExceptImage(bindingResult);
+        if (!errors.isEmpty()) {
+            return new ResponseEntity<>(
+                    Map.of(
+                            "message", "상품 등록 유효성 검사에 문제가 있습니다.",
+                            "errors", errors
+                    ),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        // 2. 상품 등록 시도
+        try {
+            Product savedProduct = productService.insertProduct(product, imageFile);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Product insert successfully",
+                    "image", savedProduct.getImage()
+            ));
+        } catch (IllegalArgumentException ex) { // 이미지 형식 또는 크기 문제
+            return ResponseEntity.badRequest().body(Map.of(
+                    "message", ex.getMessage(),
+                    "errors", Map.of("image", ex.getMessage())
+            ));
+        } catch (IllegalStateException ex) { // 경로 또는 이미지 저장 문제
+            return ResponseEntity
+                    .status(500)
+                    .body(Map.of(
+                            "message", ex.getMessage(),
+                            "error", "File saving error"
+                    ));
+        } catch (Exception err) { // DB 오류 등
+            return ResponseEntity
+                    .status(500)
+                    .body(Map.of(
+                            "message", err.getMessage(),
+                            "error", "Internal Server Error"
+                    ));
+        }
+    }
+
+    // multipart 요청의 유효성 검사 오류 목록(image 항목 제외)
+    private Map<String, String> fieldErrorsExceptImage(BindingResult bindingResult) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError error : bindingResult.getFieldErrors()) {
+            if (!"image".equals(error.getField())) {
+                errors.put(error.getField(), error.getDefaultMessage());
+            }
+        }
+        return errors;
+    }
+
     // 상품 수정 페이지 get 방식
     // 프론트 앤드의 상품 수정 페이지에서 요청이 들어 왔습니다.
     @GetMapping("/update/{id}") // 상품의 id 정보를 이용하여 해당 상품 Bean 객체를 반환해 줍니다.
@@ -155,15 +245,73 @@ public class ProductController {
         }
     }
 
+    // 상품 수정(multipart 방식), 이미지를 바꾸지 않을 때는 imageFile을 보내지 않아도 됩니다.
+    @PutMapping(value = "/update/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> putUpdateMultipart(@PathVariable Long id,
+                                                @Valid @RequestPart("product") Product updatedProduct,
+                                                BindingResult bindingResult,
+                                                @RequestPart(value = "imageFile", required = false) MultipartFile imageFile) {
+        // 1. 유효성 검사
+        Map<String, String> errors = fieldErrorsExceptImage(bindingResult);
+        if (!errors.isEmpty()) {
+            return new ResponseEntity<>(
+                    Map.of(
+                            "message", "상품 수정 유효성 검사에 문제가 있습니다.",
+                            "errors", errors
+                    ),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        // 2. 상품 조회
+        Optional<Product> findProduct = productService.findById(id);
+
+        if (findProduct.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            productService.updateProduct(findProduct.get(), updatedProduct, imageFile);
+
+            return ResponseEntity.ok(Map.of("message", "상품 수정 성공"));
+
+        } catch (IllegalArgumentException ex) { // 이미지 형식 또는 크기 문제
+            return ResponseEntity.badRequest().body(Map.of(
+                    "message", ex.getMessage(),
+                    "errors", Map.of("image", ex.getMessage())
+            ));
+        } catch (Exception err) {
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "message", err.getMessage(),
+                            "error", "상품 수정 실패"
+                    ));
+        }
+    }
+
     @GetMapping("/detail/{id}") // 프론트 엔드가 상품에 대한 상세 정보를 요청하였습니다.
-    public ResponseEntity<Product> detail(@PathVariable Long id){
+    public ResponseEntity<Product> detail(@PathVariable Long id, WebRequest webRequest){
+        // 버전은 상품을 조회하기 전에 읽습니다.(그 사이에 상품이 바뀌면 다음 요청에서 새 ETag로 다시 받게 됩니다.)
+        String etag = catalogVersionService.productEtag(id) ;
+        long lastModified = catalogVersionService.getProductVersion(id) ;
+
+        // 삭제된 상품은 브라우저에 예전 ETag가 있어도 404 응답을 보내야 하므로, 상품을 먼저 확인합니다.(대부분 캐시에서 조회)
         Product product = this.productService.getProductById(id) ;
 
         if(product == null){ // 404 응답
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build() ;
 
+        }else if(webRequest.checkNotModified(etag, lastModified)){ // 브라우저가 가지고 있는 상품 정보가 최신이면 304(Not Modified) 응답
+            return null ;
+
         }else{ // 200 ok 응답
-            return ResponseEntity.ok(product) ;
+            productService.recordView(id); // 자동 완성 목록의 인기도에 반영합니다.
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache()) // 브라우저에 저장하되, 사용하기 전에 항상 확인 요청을 보내도록 합니다.
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .body(product) ;
         }
     }
 
@@ -185,16 +333,52 @@ public class ProductController {
 //    }
 
     // 필드 검색 조건과 페이징 관련 파라미터를 사용하여 상품 목록을 조회합니다.
+    // cursor 파라미터가 넘어 오면 커서 기반(keyset) 페이징으로 조회합니다.(첫 페이지는 cursor= 처럼 빈 값을 넘겨 주세요.)
+    // cursor 파라미터가 없으면 전체 페이지 수가 필요한 클라이언트를 위하여 기존의 Page<Product> 형식으로 응답합니다.
+    // view=card 이면 목록 카드에 필요한 항목(id, name, price, image, category)과 간단한 페이징 정보만 응답합니다.
     @GetMapping("/list")
-    public ResponseEntity<Page<Product>> listProducts(
+    public ResponseEntity<?> listProducts(
             @RequestParam(defaultValue = "0") int pageNumber,
             @RequestParam(defaultValue = "6") int pageSize,
             @RequestParam(defaultValue = "all") String searchDateType,
             @RequestParam(defaultValue = "") Category category,
             @RequestParam(defaultValue = "") String searchMode ,
-            @RequestParam(defaultValue = "") String searchKeyword
+            @RequestParam(defaultValue = "") String searchKeyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "full") String view,
+            WebRequest webRequest
     ){
+        // 마지막 조회 이후 변경된 상품이 없으면, 조회 없이 304(Not Modified) 응답을 보냅니다.
+        // ETag는 요청 URL(검색 조건 포함)별로 저장되므로, 전체 상품의 버전만으로 충분합니다.
+        String etag = catalogVersionService.catalogEtag() ;
+        if(webRequest.checkNotModified(etag)){
+            return null ;
+        }
+
         SearchDto searchDto = new SearchDto(searchDateType, category, searchMode, searchKeyword);
+        boolean cardView = "card".equals(view) ;
+
+        if(cursor != null){ // 커서 기반 페이징 모드
+            Long lastId ;
+            try {
+                lastId = CursorCodec.decode(cursor) ;
+            } catch (IllegalArgumentException err) {
+                return ResponseEntity.badRequest().body(Map.of("message", err.getMessage()));
+            }
+
+            if(cardView){
+                Slice<ProductCardDto> slice = productService.listProductCardsAfter(searchDto, lastId, pageSize) ;
+                return conditional(etag).body(toSliceResponse(slice, ProductCardDto::getId)) ;
+            }
+
+            Slice<Product> slice = productService.listProductsAfter(searchDto, lastId, pageSize) ;
+            return conditional(etag).body(toSliceResponse(slice, Product::getId)) ;
+        }
+
+        if(cardView){
+            Page<ProductCardDto> cards = productService.listProductCards(searchDto, pageNumber, pageSize) ;
+            return conditional(etag).body(PageResponseDto.of(cards)) ;
+        }
 
         Page<Product> products = productService.listProducts(searchDto, pageNumber, pageSize) ;
 
@@ -204,11 +388,99 @@ public class ProductController {
         System.out.println("현재 페이지 번호 : " + products.getNumber());
 
         // Http 응답 코드 200과 함께 상품 정보를 json 형태로 반환해 줍니다.
-        return ResponseEntity.ok(products) ;
+        return conditional(etag).body(products) ;
+    }
+
+    // 200 ok 응답에 ETag를 붙여 줍니다.
+    // no-cache : 브라우저에 저장하되, 사용하기 전에 항상 If-None-Match 헤더로 확인 요청을 보내도록 합니다.
+    private ResponseEntity.BodyBuilder conditional(String etag){
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag) ;
+    }
+
+    // 커서 기반 페이징 결과를 응답 객체로 변환합니다.
+    // 다음 페이지가 있으면 현재 페이지의 마지막 항목의 id로 다음 페이지 커서를 만듭니다.
+    private <T> SliceResponseDto<T> toSliceResponse(Slice<T> slice, Function<T, Long> idGetter){
+        String nextCursor = null ;
+        if(slice.hasNext()){
+            List<T> content = slice.getContent() ;
+            nextCursor = CursorCodec.encode(idGetter.apply(content.get(content.size() - 1))) ;
+        }
+        return new SliceResponseDto<>(slice.getContent(), slice.getSize(), slice.hasNext(), nextCursor) ;
+    }
+
+    // 검색창 자동 완성 목록을 조회합니다.
+    // http://localhost:9000/product/suggest?q=ㅋㅍ&limit=10
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDto>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit
+    ){
+        return ResponseEntity.ok(productService.suggest(q, Math.min(limit, 50))) ;
+    }
+
+    // 검색 필터 바에 보여줄 기간별/카테고리별 상품 개수를 조회합니다.
+    // http://localhost:9000/product/facets?searchMode=name&searchKeyword=커피
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(defaultValue = "") String searchMode,
+            @RequestParam(defaultValue = "") String searchKeyword
+    ){
+        try {
+            return ResponseEntity.ok(productService.getFacets(searchMode, searchKeyword)) ;
+        } catch (IllegalArgumentException e) { // 키워드가 있는데 검색 모드가 올바르지 않은 경우
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage())) ;
+        }
+    }
+
+    // 상품 전체 목록을 파일로 내려 받습니다.(로그인 필요)
+    // format=ndjson(기본 값, 한 줄에 상품 1개의 json) 또는 format=csv
+    // 데이터 베이스에서 1건씩 읽어서 바로 응답에 쓰므로, 상품이 아무리 많아도 메모리 사용량이 늘어나지 않습니다.
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        if("csv".equalsIgnoreCase(format)){
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"");
+        }else{
+            response.setContentType("application/x-ndjson; charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"");
+        }
+
+        productExportService.export(format, response.getOutputStream()) ;
+    }
+
+    // 상품 목록/상세 캐시의 적중(hit)/미스(miss) 현황을 조회합니다.(모니터링 용도, 로그인 필요)
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats(){
+        return ResponseEntity.ok(Map.of(
+                "list", productService.getListCacheStats(),
+                "detail", productService.getDetailCacheStats()
+        )) ;
+    }
+
+    // 가장 최근에 실행된 이미지 파일 정리 작업의 결과(삭제한 파일 개수, 확보한 바이트 수 등)를 조회합니다.(로그인 필요)
+    @GetMapping("/images/gc")
+    public ResponseEntity<Map<String, Object>> getImageGcReport(){
+        return ResponseEntity.ok(productImageGarbageCollector.getLastReport()) ;
+    }
+
+    // 메모리 재고의 예약/반영 현황을 조회합니다.(모니터링 용도, 로그인 필요)
+    @GetMapping("/inventory/stats")
+    public ResponseEntity<Map<String, Object>> getInventoryStats(){
+        return ResponseEntity.ok(inventoryService.stats()) ;
     }
 
     @GetMapping("") // 홈 페이지에 보여줄 큰 이미지들에 대한 정보를 읽어 옵니다.
-    public List<Product> getBigsizeProducts(@RequestParam(required = false) String filter){
-        return productService.getProductsByFilter(filter) ;
+    public ResponseEntity<byte[]> getBigsizeProducts(@RequestParam(required = false) String filter, WebRequest webRequest){
+        // 미리 만들어 둔 json 스냅샷을 사용하므로 데이터 베이스 조회와 json 변환이 필요 없습니다.
+        HomeSnapshotService.Snapshot snapshot = productService.getHomeSnapshot(filter) ;
+
+        // 브라우저가 보낸 If-None-Match 값이 현재 ETag와 같으면 304(Not Modified) 응답을 보냅니다.
+        if(webRequest.checkNotModified(snapshot.getEtag())){
+            return null ;
+        }
+
+        return conditional(snapshot.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getJson()) ;
     }
 }
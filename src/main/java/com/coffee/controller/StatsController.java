@@ -0,0 +1,51 @@
+package com.coffee.controller;
+
+import com.coffee.dto.SalesStatsDto;
+import com.coffee.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// 매출 통계를 조회하는 컨트롤러입니다.(관리자만 가능 - SecurityConfig 참고)
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+public class StatsController {
+    private static final long MAX_DAYS = 366; // 한번에 조회할 수 있는 최대 기간
+
+    private final SalesRollupService salesRollupService;
+
+    // 기간(양 끝 포함)의 날짜별/상품별 판매 수량과 매출을 조회합니다.(기본 값 : 오늘까지 최근 30일)
+    // 예시 : /stats/sales?from=2025-01-01&to=2025-01-31
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate toDate = to != null ? to : LocalDate.now();
+        LocalDate fromDate = from != null ? from : toDate.minusDays(29);
+
+        if (fromDate.isAfter(toDate) || ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_DAYS) {
+            return ResponseEntity.badRequest().body(Map.of("message", "조회 기간은 " + MAX_DAYS + "일 이하로 지정해야 합니다."));
+        }
+
+        SalesStatsDto stats = salesRollupService.getSales(fromDate, toDate);
+        return ResponseEntity.ok(stats);
+    }
+
+    // 주문 내역 전체로 판매 합계를 다시 계산합니다.(합계가 주문 내역과 맞지 않을 때 관리자가 실행)
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<?> rebuildSales() {
+        long days = salesRollupService.rebuild();
+        if (days < 0) {
+            LocalDate watermark = salesRollupService.getRebuildWatermark();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "판매 합계를 재계산하고 있습니다.",
+                    "rebuiltUntil", String.valueOf(watermark)));
+        }
+        return ResponseEntity.ok(Map.of("days", days));
+    }
+}
@@ -0,0 +1,19 @@
+package com.coffee.dto;
+
+import com.coffee.constant.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+// 주문 목록 조회 시 사용하는 검색 조건 클래스입니다.(값이 null인 조건은 적용하지 않습니다.)
+@Getter @Setter @ToString
+@AllArgsConstructor
+public class OrderSearchDto {
+    private OrderStatus status ; // 주문 상태(null이면 모든 상태)
+    private Long memberId ; // 주문한 회원의 id(일반 사용자는 항상 본인의 id)
+    private LocalDate fromDate ; // 주문 날짜 시작일(포함)
+    private LocalDate toDate ; // 주문 날짜 종료일(포함)
+}
@@ -0,0 +1,18 @@
+package com.coffee.dto;
+
+import com.coffee.constant.OrderStatus;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+// 관리자가 여러 주문의 상태를 한번에 변경할 때 리액트가 넘겨 주는 파라미터를 저장하기 위한 클래스
+// orderIds(송장 번호 목록) 또는 fromId ~ toId(송장 번호 범위, 양 끝 포함) 중 하나를 지정합니다.
+@Getter @Setter @ToString
+public class OrderStatusBulkDto {
+    private List<Long> orderIds ; // 변경할 송장 번호 목록
+    private Long fromId ; // 변경할 송장 번호 범위의 시작
+    private Long toId ; // 변경할 송장 번호 범위의 끝
+    private OrderStatus status ; // 변경하고자 하는 주문 상태
+}
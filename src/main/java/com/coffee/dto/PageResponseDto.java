@@ -0,0 +1,28 @@
+package com.coffee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// 페이징 응답 1건을 의미하는 클래스입니다.
+// 스프링의 Page 객체를 그대로 json으로 만들면 pageable, sort 등 화면에서 사용하지 않는 정보까지 포함되므로,
+// 목록 화면에 필요한 항목만 담아서 보냅니다.(항목 이름은 Page 객체와 동일합니다.)
+@Getter @ToString
+@AllArgsConstructor
+public class PageResponseDto<T> {
+    private List<T> content ; // 현재 페이지의 데이터 목록
+    private int number ; // 현재 페이지 번호(0 base)
+    private int size ; // 페이지 크기
+    private long totalElements ; // 전체 데이터 개수
+    private int totalPages ; // 전체 페이지 수
+    private boolean first ; // 첫 페이지 여부
+    private boolean last ; // 마지막 페이지 여부
+
+    public static <T> PageResponseDto<T> of(Page<T> page) {
+        return new PageResponseDto<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isFirst(), page.isLast());
+    }
+}
@@ -0,0 +1,19 @@
+package com.coffee.dto;
+
+import com.coffee.constant.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// 상품 목록 화면의 카드 1개에 보여줄 정보만 가지고 있는 클래스입니다.
+// 상품 설명(description, 최대 1,000자)과 재고 등은 목록 화면에서 사용하지 않으므로 조회하지 않습니다.
+// 주의) 생성자의 매개 변수 순서는 ProductRepositoryCustomImpl.findCards()의 select 순서와 동일해야 합니다.
+@Getter @ToString
+@AllArgsConstructor
+public class ProductCardDto {
+    private Long id ; // 상품 아이디
+    private String name ; // 상품 이름
+    private int price ; // 가격
+    private String image ; // 이미지 파일 이름
+    private Category category ; // 카테고리
+}
@@ -0,0 +1,13 @@
+package com.coffee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// 검색창 자동 완성 목록에 보여줄 상품 1개의 정보입니다.
+@Getter @ToString
+@AllArgsConstructor
+public class ProductSuggestionDto {
+    private Long id ; // 상품 아이디
+    private String name ; // 상품 이름
+}
@@ -0,0 +1,39 @@
+package com.coffee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 매출 통계(/stats/sales) 조회 결과를 담는 클래스입니다.(취소된 주문은 제외)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesStatsDto {
+    private LocalDate fromDate ; // 조회 시작일(포함)
+    private LocalDate toDate ; // 조회 종료일(포함)
+    private long units ; // 기간 전체의 판매 수량
+    private long revenue ; // 기간 전체의 매출
+
+    private List<Daily> daily ; // 날짜별 합계(판매가 없는 날짜는 포함하지 않습니다.)
+    private List<ProductSales> products ; // 상품별 합계(매출이 큰 상품부터)
+
+    @Data
+    @AllArgsConstructor
+    public static class Daily {
+        private LocalDate date ;
+        private long units ;
+        private long revenue ;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ProductSales {
+        private Long productId ;
+        private String productName ; // 삭제된 상품이면 null
+        private long units ;
+        private long revenue ;
+    }
+}
@@ -0,0 +1,18 @@
+package com.coffee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+// 커서 기반 페이징(무한 스크롤)의 응답 1건을 의미하는 클래스입니다.
+// 전체 개수(count 쿼리)는 구하지 않고, 다음 페이지가 있는지 여부와 다음 페이지 커서만 알려 줍니다.
+@Getter @ToString
+@AllArgsConstructor
+public class SliceResponseDto<T> {
+    private List<T> content ; // 현재 페이지의 데이터 목록
+    private int size ; // 요청한 페이지 크기
+    private boolean hasNext ; // 다음 페이지 존재 여부
+    private String nextCursor ; // 다음 페이지 요청 시 그대로 넘겨 줄 커서(다음 페이지가 없으면 null)
+}
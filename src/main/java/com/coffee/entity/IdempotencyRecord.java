@@ -0,0 +1,30 @@
+package com.coffee.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// 처리가 끝난 주문 요청의 Idempotency-Key를 저장하는 엔터티입니다.(order.idempotency.persist=true 일 때만 사용)
+// 서버가 재시작되거나 여러 대의 서버가 실행 중이어도, 같은 키로 다시 들어온 요청에 기존 송장 번호를 돌려줄 수 있습니다.
+@Getter @Setter @ToString
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "createdAt")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 150)
+    private String key ; // "회원 id:Idempotency-Key 헤더 값"
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint ; // 요청 본문의 해시 값(같은 키로 다른 주문을 보냈는지 확인)
+
+    @Column(nullable = false)
+    private Long orderId ; // 처음 요청에서 만들어진 송장 번호
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt ;
+}
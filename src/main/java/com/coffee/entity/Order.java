@@ -11,7 +11,12 @@ import java.util.List;
 
 @Getter @Setter @ToString
 @Entity
-@Table(name = "orders") // 주의) order은 데이터 베이스 전용 키워드입니다.
+// 주의) order은 데이터 베이스 전용 키워드입니다.
+// 주문 목록 조회(상태별, 회원별+상태별, 최신순) 시 정렬 없이 인덱스 순서대로 읽을 수 있도록 복합 인덱스를 만듭니다.
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_id", columnList = "status, order_id"),
+        @Index(name = "idx_orders_member_status_id", columnList = "member_id, status, order_id")
+})
 public class Order { // 주문과 관련된 Entity입니다.
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -25,4 +25,6 @@ public class OrderProduct { // 한개의 `주문 상품`을 의미하는 자바
 
     @Column(nullable = false)
     private int quantity ; // 주문 수량
+
+    private Integer price ; // 주문 당시의 상품 단가(매출 계산 용도, 이 컬럼이 생기기 전의 주문은 null이며 현재 단가를 사용합니다.)
 }
@@ -32,9 +32,13 @@ public class Product {
     @NotNull(message = "카테고리는 반드시 선택해야 합니다.")
     private Category category;
 
+    // 재고 수량의 범위(데이터 베이스의 check 제약 조건이 되므로, 재고를 바꾸는 update 문장도 이 범위를 지켜야 합니다.)
+    public static final int MIN_STOCK = 10;
+    public static final int MAX_STOCK = 1000;
+
     @Column(nullable = false)
-    @Min(value = 10, message = "재고 수량은 10개 이상이어야 합니다.")
-    @Max(value = 1000, message = "재고 수량은 1000개 이하이어야 합니다.")
+    @Min(value = MIN_STOCK, message = "재고 수량은 10개 이상이어야 합니다.")
+    @Max(value = MAX_STOCK, message = "재고 수량은 1000개 이하이어야 합니다.")
     private int stock ;
 
     @Column(nullable = false)
@@ -0,0 +1,43 @@
+package com.coffee.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// 날짜별, 상품별 판매 수량과 매출을 미리 합산해 두는 엔터티입니다.(취소된 주문은 제외)
+// 주문/주문 취소 시 SalesRollupService가 같은 트랜잭션 안에서 갱신하므로, 매출 통계를 주문 전체를 읽지 않고 조회할 수 있습니다.
+// 주의) 행 추가와 갱신은 insert ... on duplicate key update 문장을 사용하므로 SalesDailyRepositoryCustomImpl의 컬럼 이름과 맞춰야 합니다.
+@Getter @Setter @ToString
+@Entity
+@IdClass(SalesDaily.Key.class)
+@Table(name = "sales_daily")
+public class SalesDaily {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate ; // 주문 날짜
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId ; // 상품 번호(상품이 삭제되어도 판매 내역은 남겨 두므로 외래 키를 두지 않습니다.)
+
+    @Column(name = "units", nullable = false)
+    private long units ; // 판매 수량
+
+    @Column(name = "revenue", nullable = false)
+    private long revenue ; // 매출(수량 * 주문 당시 단가)
+
+    // 복합 기본 키(주문 날짜 + 상품 번호)
+    @Getter @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate salesDate ;
+        private Long productId ;
+    }
+}
@@ -2,15 +2,20 @@ package com.coffee.repository;
 
 import com.coffee.constant.OrderStatus;
 import com.coffee.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+// 검색 조건이 있는 주문 목록 조회는 OrderRepositoryCustom을 참고하세요.
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     // 쿼리 메소드를 사용하여 특정 회원의 송장 번호가 큰 것(최신 주문) 것부터 조회합니다.
     // 주문의 상태가 PENDING인것만 조회합니다.
     // cf. 좀더 복잡한 쿼리를 사용하시려면 @Query 또는 querydsl을 사용하세요.
@@ -20,6 +25,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // 주문의 상태가 PENDING인것만 조회합니다.
     List<Order> findByStatusOrderByIdDesc(OrderStatus status); // 이건 관리자가 사용합니다.
 
+    // 여러 주문의 `주문 상품` 목록을 쿼리 1번으로 조회합니다.(상품 이름은 join으로 함께 읽어 옵니다.)
+    // 반환 값의 각 행 : [송장 번호(Long), 상품 이름(String), 주문 수량(Integer)]
+    @Query("select op.order.id, p.name, op.quantity from OrderProduct op join op.product p " +
+            "where op.order.id in :orderIds order by op.id")
+    List<Object[]> findOrderItemRows(@Param("orderIds") Collection<Long> orderIds);
+
     // 특정 주문에 대하여 주문의 상태를 '주문 완료(COMPLETED)'로 변경합니다.
     // 쿼리 메소드대신 @Query 어노테이션 사용 예시 : sql 대신 JPQL
     // 주의 사항
@@ -29,4 +40,59 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Transactional // import jakarta.transaction.Transactional;
     @Query("update Order o set o.status = :status where o.id = :orderId")
     int updateOrderStatus(@Param("orderId") Long orderId, @Param("status") OrderStatus status);
+
+    // 여러 주문의 상태를 update 문장 1개로 변경합니다.(취소된 주문은 제외)
+    @Modifying
+    @Transactional
+    @Query("update Order o set o.status = :status where o.id in :orderIds and o.status <> com.coffee.constant.OrderStatus.CANCELED")
+    int updateOrderStatuses(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status);
+
+    // 송장 번호 범위(양 끝 포함)에 있는 주문의 상태를 update 문장 1개로 변경합니다.(취소된 주문은 제외)
+    @Modifying
+    @Transactional
+    @Query("update Order o set o.status = :status where o.id between :fromId and :toId and o.status <> com.coffee.constant.OrderStatus.CANCELED")
+    int updateOrderStatusesInRange(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("status") OrderStatus status);
+
+    // 반환 값의 각 행 : [송장 번호(Long), 주문 상태(OrderStatus)]
+    @Query("select o.id, o.status from Order o where o.id in :orderIds order by o.id")
+    List<Object[]> findStatusRows(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("select o.id, o.status from Order o where o.id between :fromId and :toId order by o.id")
+    List<Object[]> findStatusRowsInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // 취소할 주문들을 조회하고, 트랜잭션이 끝날 때까지 다른 트랜잭션이 변경하지 못하도록 잠급니다.(select ... for update)
+    // 같은 주문을 동시에 취소해도 재고는 1번만 복원됩니다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :orderIds and o.status <> com.coffee.constant.OrderStatus.CANCELED order by o.id")
+    List<Order> findCancelableForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.member.id = :memberId and o.status = :status order by o.id")
+    List<Order> findByMemberIdAndStatusForUpdate(@Param("memberId") Long memberId, @Param("status") OrderStatus status);
+
+    // 여러 주문의 판매 수량과 매출을 (주문 날짜, 상품)별로 합산합니다.(주문 취소 시 재고 복원 및 판매 합계 차감 용도)
+    // 반환 값의 각 행 : [주문 날짜(LocalDate), 상품 id(Long), 수량 합계(Long), 매출 합계(Long)]
+    @Query("select o.orderdate, p.id, sum(op.quantity), sum(op.quantity * coalesce(op.price, p.price)) " +
+            "from OrderProduct op join op.order o join op.product p " +
+            "where o.id in :orderIds group by o.orderdate, p.id order by o.orderdate, p.id")
+    List<Object[]> sumSalesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // 주문이 있는 날짜 목록(판매 합계 재계산 시 날짜 단위 처리 용도)
+    @Query("select distinct o.orderdate from Order o where o.orderdate is not null")
+    List<LocalDate> findDistinctOrderDates();
+
+    // 하루 동안의 취소되지 않은 주문의 판매 수량과 매출을 상품별로 합산합니다.
+    // 반환 값의 각 행 : [주문 날짜(LocalDate), 상품 id(Long), 수량 합계(Long), 매출 합계(Long)]
+    @Query("select o.orderdate, p.id, sum(op.quantity), sum(op.quantity * coalesce(op.price, p.price)) " +
+            "from OrderProduct op join op.order o join op.product p " +
+            "where o.orderdate = :orderdate and o.status <> com.coffee.constant.OrderStatus.CANCELED " +
+            "group by o.orderdate, p.id order by p.id")
+    List<Object[]> sumSalesOnDate(@Param("orderdate") LocalDate orderdate);
+
+    // 여러 주문을 update 문장 1개로 취소 상태로 변경합니다.(주문 내역은 삭제하지 않습니다.)
+    // 실행 후 영속성 컨텍스트를 비워서, 이전에 읽어 온 주문 엔터티가 변경 전 상태로 남지 않도록 합니다.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Order o set o.status = com.coffee.constant.OrderStatus.CANCELED where o.id in :orderIds")
+    int cancelOrders(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,19 @@
+package com.coffee.repository;
+
+import com.coffee.dto.OrderSearchDto;
+
+import java.util.List;
+
+// 검색 조건에 따라 where 절이 달라지는 주문 조회 기능을 직접 구현하기 위한 인터페이스입니다.
+// 구현 클래스는 OrderRepositoryCustomImpl이며, OrderRepository가 상속 받아서 사용합니다.
+public interface OrderRepositoryCustom {
+    /*
+        주문 목록 화면(OrderDetailDto)에 필요한 컬럼만 송장 번호의 역순(최신 주문부터)으로 조회합니다.
+        회원 이름은 join으로 함께 읽어 오므로, 주문마다 회원을 따로 조회하지 않습니다.
+        search : 검색 조건
+        lastId : 이전 페이지의 마지막 송장 번호(이 번호보다 작은 주문만 조회, 첫 페이지는 null)
+        limit : 최대 조회 건수(0 이하이면 제한 없음)
+        반환 값의 각 행 : [송장 번호(Long), 회원 이름(String), 주문 날짜(LocalDate), 주문 상태(OrderStatus)]
+    */
+    List<Object[]> findOrderRows(OrderSearchDto search, Long lastId, int limit);
+}
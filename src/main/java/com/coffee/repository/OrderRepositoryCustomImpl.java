@@ -0,0 +1,60 @@
+package com.coffee.repository;
+
+import com.coffee.dto.OrderSearchDto;
+import com.coffee.entity.Member;
+import com.coffee.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// OrderRepositoryCustom의 구현 클래스입니다.
+// where 절의 (member_id, status, order_id) 순서는 orders 테이블의 복합 인덱스(Order 엔터티 참고)와 맞춰져 있습니다.
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findOrderRows(OrderSearchDto search, Long lastId, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<Order> root = query.from(Order.class);
+        Join<Order, Member> member = root.join("member");
+
+        // select o.id, m.name, o.orderdate, o.status from Order o join o.member m
+        query.multiselect(root.get("id"), member.get("name"), root.get("orderdate"), root.get("status"));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (search.getMemberId() != null) {
+            predicates.add(criteriaBuilder.equal(root.get("member").get("id"), search.getMemberId()));
+        }
+        if (search.getStatus() != null) {
+            predicates.add(criteriaBuilder.equal(root.get("status"), search.getStatus()));
+        }
+        if (lastId != null) {
+            predicates.add(criteriaBuilder.lessThan(root.get("id"), lastId));
+        }
+        if (search.getFromDate() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("orderdate"), search.getFromDate()));
+        }
+        if (search.getToDate() != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("orderdate"), search.getToDate()));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(criteriaBuilder.desc(root.get("id")));
+
+        TypedQuery<Object[]> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -1,14 +1,27 @@
 package com.coffee.repository;
 
 import com.coffee.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+// JpaSpecificationExecutor : 검색 조건(Specification)을 사용하는 count() 메소드 등을 사용합니다.
+// ProductRepositoryCustom : 직접 구현한 조회 메소드(ProductRepositoryCustomImpl)를 사용합니다.
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     // 상품의 아이디를 역순으로 정렬하여 상품 목록을 보여 주어야 합니다.
     List<Product> findProductByOrderByIdDesc();
 
@@ -20,4 +33,56 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // 데이터 베이스의 like 키워드와 유사합니다.
     // select * from products where image like '%bigs%';
     List<Product> findByImageContaining(String keyword);
+
+    // facet(카테고리별/기간별 상품 개수) 집계에 필요한 컬럼만 조회합니다.
+    // 반환 값의 각 행 : [상품 id(Long), 카테고리(Category), 입고 일자(LocalDate)]
+    @Query("select p.id, p.category, p.inputdate from Product p")
+    List<Object[]> findFacetRows();
+
+    // 상품 이름/설명에 키워드가 포함된 상품의 id만 조회합니다.(검색 색인이 준비되기 전 facet 계산 용도)
+    @Query("select p.id from Product p where p.name like concat('%', :keyword, '%')")
+    List<Long> findIdsByNameLike(@Param("keyword") String keyword);
+
+    @Query("select p.id from Product p where p.description like concat('%', :keyword, '%')")
+    List<Long> findIdsByDescriptionLike(@Param("keyword") String keyword);
+
+    // 재고 정보만 조회합니다.(InventoryService의 재고 맞추기 용도)
+    // 반환 값의 각 행 : [상품 id(Long), 재고(Integer)]
+    @Query("select p.id, p.stock from Product p")
+    List<Object[]> findStockRows();
+
+    // 상품 1개의 재고만 데이터 베이스에서 읽습니다.(영속성 컨텍스트에 있는 엔티티의 값이 아닌 커밋된 값)
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // 자동 완성 색인에 필요한 컬럼만 조회합니다.
+    // 반환 값의 각 행 : [상품 id(Long), 상품 이름(String)]
+    @Query("select p.id, p.name from Product p")
+    List<Object[]> findSuggestRows();
+
+    // 상품 전체를 id 순서대로 1건씩 읽어 오는 Stream을 반환합니다.(상품 목록 내보내기 용도)
+    // fetchSize : Integer.MIN_VALUE이면 MySQL 드라이버가 결과를 메모리에 모두 올리지 않고 1행씩 읽어 옵니다.(이 문장에만 적용)
+    // readOnly : 변경 감지용 스냅샷을 만들지 않습니다.
+    // 주의) 반드시 트랜잭션 안에서 호출하고, 사용 후에는 Stream을 닫아야 합니다.
+    //      Stream을 닫기 전에는 같은 데이터 베이스 연결로 다른 쿼리를 실행할 수 없습니다.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAllByOrderByIdAsc();
+
+    // 이미지 파일별로 몇 개의 상품이 사용하고 있는지 조회합니다.(ProductImageStorage의 참조 개수 계산)
+    @Query("select p.image, count(p) from Product p where p.image is not null group by p.image")
+    List<Object[]> findImageReferenceCounts();
+
+    // 상품 id 순서대로 lastId 다음의 이미지 파일 이름을 pageable.getPageSize()개씩 조회합니다.(keyset 방식)
+    // offset 방식과 달리 뒤쪽 페이지로 갈수록 느려지지 않습니다.
+    @Query("select p.id, p.image from Product p where p.id > :lastId order by p.id asc")
+    List<Object[]> findImagesAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // 여러 상품을 조회하면서 행 잠금(select ... for update)을 겁니다.
+    // 여러 트랜잭션이 서로 다른 순서로 잠그지 않도록(교착 상태 방지) 상품 id 순서로 조회합니다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,29 @@
+package com.coffee.repository;
+
+import com.coffee.dto.ProductCardDto;
+import com.coffee.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+// 쿼리 메소드로 표현하기 어려운 상품 조회 기능을 직접 구현하기 위한 인터페이스입니다.
+// 구현 클래스는 ProductRepositoryCustomImpl이며, ProductRepository가 상속 받아서 사용합니다.
+public interface ProductRepositoryCustom {
+    // 검색 조건 spec와 페이징 정보 pageable를 사용하여 해당 페이지의 상품 목록만 조회합니다.
+    // findAll(spec, pageable)과 달리 count 쿼리는 실행하지 않습니다.(전체 개수는 캐시된 값을 사용합니다.)
+    List<Product> findContent(Specification<Product> spec, Pageable pageable);
+
+    // findContent()와 동일하지만, 상품 목록 카드에 필요한 컬럼(id, name, price, image, category)만 조회합니다.
+    List<ProductCardDto> findCards(Specification<Product> spec, Pageable pageable);
+
+    // 여러 상품의 재고를 update 문장 1개로 차감합니다.(quantities : 상품 id -> 차감할 수량)
+    // 모든 상품의 재고가 충분할 때만 해당 행이 변경되므로, 반환 값(변경된 행 개수)이 상품 개수보다 작으면 재고 부족입니다.
+    // 진행 중인 트랜잭션이 있으면 그 트랜잭션에 참여합니다.(addStocks도 동일)
+    int decreaseStocks(Map<Long, Integer> quantities);
+
+    // 여러 상품의 재고에 변경량(음수이면 차감)을 update 문장 1개로 더합니다.(주문 취소, InventoryService의 일괄 반영 용도)
+    // 더한 결과가 재고 범위(Product.MIN_STOCK ~ MAX_STOCK) 안에 있는 행만 변경되므로, 반환 값이 상품 개수보다 작으면 범위를 벗어난 상품이 있습니다.
+    int addStocks(Map<Long, Integer> deltas);
+}
@@ -0,0 +1,125 @@
+package com.coffee.repository;
+
+import com.coffee.dto.ProductCardDto;
+import com.coffee.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+// ProductRepositoryCustom의 구현 클래스입니다.
+// 주의) 클래스 이름은 반드시 '인터페이스 이름 + Impl'이어야 스프링이 찾아서 연결해 줍니다.
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findContent(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = criteriaBuilder.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        TypedQuery<Product> typedQuery = entityManager.createQuery(query);
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<ProductCardDto> findCards(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductCardDto> query = criteriaBuilder.createQuery(ProductCardDto.class);
+        Root<Product> root = query.from(Product.class);
+
+        // select new ProductCardDto(p.id, p.name, p.price, p.image, p.category) from Product p
+        query.select(criteriaBuilder.construct(ProductCardDto.class,
+                root.get("id"), root.get("name"), root.get("price"), root.get("image"), root.get("category")));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        TypedQuery<ProductCardDto> typedQuery = entityManager.createQuery(query);
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int decreaseStocks(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        // 차감 후에도 최소 재고(Product.MIN_STOCK) 이상 남는 상품만 변경합니다.
+        // (최소 재고 아래로 내려가면 check 제약 조건 위반으로 문장 전체가 실패하므로, 품절과 같이 처리합니다.)
+        String caseExpression = caseExpression(quantities.size());
+        Query query = entityManager.createQuery("update Product p set p.stock = p.stock - " + caseExpression
+                + " where p.id in :ids and p.stock >= " + caseExpression + " + :minStock");
+        bindCaseParameters(query, quantities);
+        query.setParameter("minStock", Product.MIN_STOCK);
+        return query.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int addStocks(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        // 변경 후에도 재고 범위(Product.MIN_STOCK ~ MAX_STOCK) 안에 있는 상품만 변경합니다.
+        // (범위를 벗어난 부분을 조용히 버리지 않고, 변경되지 않은 행으로 호출한 쪽에 알려 줍니다.)
+        String caseExpression = caseExpression(deltas.size());
+        Query query = entityManager.createQuery("update Product p set p.stock = p.stock + " + caseExpression
+                + " where p.id in :ids and p.stock + " + caseExpression + " between :minStock and :maxStock");
+        bindCaseParameters(query, deltas);
+        query.setParameter("minStock", Product.MIN_STOCK);
+        query.setParameter("maxStock", Product.MAX_STOCK);
+        return query.executeUpdate();
+    }
+
+    /*
+        상품마다 다른 값을 적용하기 위한 case 식입니다.(decreaseStocks, addStocks 공통)
+        (case p.id when :id0 then :q0 when :id1 then :q1 ... else 0 end)
+    */
+    private String caseExpression(int count) {
+        StringBuilder caseExpression = new StringBuilder("(case p.id");
+        for (int i = 0; i < count; i++) {
+            caseExpression.append(" when :id").append(i).append(" then :q").append(i);
+        }
+        return caseExpression.append(" else 0 end)").toString();
+    }
+
+    private void bindCaseParameters(Query query, Map<Long, Integer> values) {
+        int index = 0;
+        for (Map.Entry<Long, Integer> entry : values.entrySet()) {
+            query.setParameter("id" + index, entry.getKey());
+            query.setParameter("q" + index, entry.getValue());
+            index++;
+        }
+        query.setParameter("ids", values.keySet());
+    }
+}
@@ -0,0 +1,36 @@
+package com.coffee.repository;
+
+import com.coffee.entity.SalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 판매 합계 행의 추가/갱신은 SalesDailyRepositoryCustom을 참고하세요.
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, SalesDaily.Key>, SalesDailyRepositoryCustom {
+    // 기간(양 끝 포함) 안의 날짜별 합계
+    // 반환 값의 각 행 : [날짜(LocalDate), 수량 합계(Long), 매출 합계(Long)]
+    @Query("select s.salesDate, sum(s.units), sum(s.revenue) from SalesDaily s " +
+            "where s.salesDate between :fromDate and :toDate group by s.salesDate order by s.salesDate")
+    List<Object[]> sumByDate(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // 기간(양 끝 포함) 안의 상품별 합계(매출이 큰 상품부터, 삭제된 상품은 이름이 null)
+    // 반환 값의 각 행 : [상품 id(Long), 상품 이름(String), 수량 합계(Long), 매출 합계(Long)]
+    @Query("select s.productId, p.name, sum(s.units), sum(s.revenue) from SalesDaily s " +
+            "left join Product p on p.id = s.productId " +
+            "where s.salesDate between :fromDate and :toDate " +
+            "group by s.productId, p.name order by sum(s.revenue) desc, s.productId")
+    List<Object[]> sumByProduct(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // 합계가 있는 날짜 목록(판매 합계 재계산 용도)
+    @Query("select distinct s.salesDate from SalesDaily s")
+    List<LocalDate> findDistinctSalesDates();
+
+    // 하루 동안의 합계 행을 모두 삭제합니다.(판매 합계 재계산 용도, 호출하는 쪽의 트랜잭션 안에서 실행)
+    @Modifying
+    @Query("delete from SalesDaily s where s.salesDate = :salesDate")
+    int deleteBySalesDate(@Param("salesDate") LocalDate salesDate);
+}
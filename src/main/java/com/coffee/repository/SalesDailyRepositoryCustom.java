@@ -0,0 +1,14 @@
+package com.coffee.repository;
+
+import java.util.List;
+
+// 판매 합계 행을 추가하거나 기존 행에 더하는 기능을 직접 구현하기 위한 인터페이스입니다.
+// 구현 클래스는 SalesDailyRepositoryCustomImpl이며, SalesDailyRepository가 상속 받아서 사용합니다.
+public interface SalesDailyRepositoryCustom {
+    /*
+        (날짜, 상품)별 판매 수량과 매출을 더합니다.(행이 없으면 새로 만들고, 음수이면 차감)
+        rows의 각 행 : [주문 날짜(LocalDate), 상품 id(Long), 수량(Number), 매출(Number)]
+        반환 값 : 실행한 sql 문장의 개수(행의 개수와 관계 없이 최대 500행씩 묶어서 1개의 문장으로 실행)
+    */
+    int addSales(List<Object[]> rows);
+}
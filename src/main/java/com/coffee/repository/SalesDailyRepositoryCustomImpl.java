@@ -0,0 +1,51 @@
+package com.coffee.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// SalesDailyRepositoryCustom의 구현 클래스입니다.
+public class SalesDailyRepositoryCustomImpl implements SalesDailyRepositoryCustom {
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /*
+        insert into sales_daily (sales_date, product_id, units, revenue)
+        values (:d0, :p0, :u0, :r0), (:d1, :p1, :u1, :r1) ...
+        on duplicate key update units = units + values(units), revenue = revenue + values(revenue)
+
+        같은 행을 동시에 갱신하는 트랜잭션끼리 교착 상태가 생기지 않도록, 호출하는 쪽에서 (날짜, 상품 id) 순으로 정렬해서 넘겨 줍니다.
+    */
+    @Override
+    @Transactional
+    public int addSales(List<Object[]> rows) {
+        int statements = 0;
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + ROWS_PER_STATEMENT));
+
+            StringBuilder sql = new StringBuilder("insert into sales_daily (sales_date, product_id, units, revenue) values ");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ")
+                        .append("(:d").append(i).append(", :p").append(i).append(", :u").append(i).append(", :r").append(i).append(")");
+            }
+            sql.append(" on duplicate key update units = units + values(units), revenue = revenue + values(revenue)");
+
+            Query query = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                Object[] row = chunk.get(i);
+                query.setParameter("d" + i, row[0]);
+                query.setParameter("p" + i, row[1]);
+                query.setParameter("u" + i, ((Number) row[2]).longValue());
+                query.setParameter("r" + i, ((Number) row[3]).longValue());
+            }
+            query.executeUpdate();
+            statements++;
+        }
+        return statements;
+    }
+}
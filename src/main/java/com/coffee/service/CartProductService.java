@@ -5,6 +5,7 @@ import com.coffee.repository.CartProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Service
@@ -43,4 +44,11 @@ public class CartProductService {
     public void deleteCartProductById(Long cartProductId) {
         cartProductRepository.deleteById(cartProductId);
     }
+
+    // 여러 장바구니 품목을 delete 문장 1개로 삭제합니다.(주문 완료 시 사용)
+    public void deleteCartProductsByIds(Collection<Long> cartProductIds) {
+        if (!cartProductIds.isEmpty()) {
+            cartProductRepository.deleteAllByIdInBatch(cartProductIds);
+        }
+    }
 }
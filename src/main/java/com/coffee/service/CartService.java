@@ -22,6 +22,7 @@ public class CartService {
     private final MemberService memberService ;
     private final ProductService productService ;
     private final CartProductService cartProductService ;
+    private final InventoryService inventoryService ;
 
     public Cart saveCart(Cart cart) {
         return cartRepository.save(cart);
@@ -42,17 +43,27 @@ public class CartService {
     public String addProductToCart(CartProductDto dto) {
         // 1. 회원 및 상품 검증
         Optional<Member> memberOptional = memberService.findMemberById(dto.getMemberId());
-        Optional<Product> productOptional = productService.findProductById(dto.getProductId());
-
-        if (memberOptional.isEmpty() || productOptional.isEmpty()) {
+        if (memberOptional.isEmpty()) {
             throw new IllegalArgumentException("회원 또는 상품 정보가 올바르지 않습니다.");
         }
-
         Member member = memberOptional.get();
-        Product product = productOptional.get();
 
-        // 2. 재고 확인
-        if (product.getStock() < dto.getQuantity()) {
+        // 2. 상품 확인 및 재고 확인
+        // 메모리 재고를 사용하면 products 테이블을 조회하지 않습니다.(메모리에 없는 상품이면 데이터 베이스에서 확인)
+        int available = inventoryService.isEnabled() ? inventoryService.getAvailable(dto.getProductId()) : -1;
+        Product product;
+        if (available >= 0) {
+            product = productService.getProductReference(dto.getProductId());
+        } else {
+            Optional<Product> productOptional = productService.findProductById(dto.getProductId());
+            if (productOptional.isEmpty()) {
+                throw new IllegalArgumentException("회원 또는 상품 정보가 올바르지 않습니다.");
+            }
+            product = productOptional.get();
+            available = product.getStock() - Product.MIN_STOCK; // 최소 재고는 판매할 수 없습니다.
+        }
+
+        if (available < dto.getQuantity()) {
             throw new IllegalArgumentException("재고 수량이 부족합니다.");
         }
 
@@ -0,0 +1,53 @@
+package com.coffee.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    상품 정보의 버전을 관리하는 서비스입니다.(조건부 GET 요청의 ETag와 Last-Modified 헤더에 사용합니다.)
+        상품별 버전 : 해당 상품이 마지막으로 변경된 시각(밀리초), 상세 보기(/product/detail/{id})에 사용
+        전체 버전 : 상품 중 하나라도 마지막으로 변경된 시각(밀리초), 목록 보기(/product/list)에 사용
+    버전은 메모리에만 있으므로 애플리케이션이 다시 시작되면 시작 시각부터 새로 시작합니다.
+    (다시 시작하기 전에 받아간 ETag는 모두 일치하지 않게 되어, 안전하게 한번 더 조회합니다.)
+*/
+@Service
+public class CatalogVersionService {
+    private final long bootVersion = System.currentTimeMillis();
+
+    private final AtomicLong lastStamp = new AtomicLong(bootVersion);
+    private final AtomicLong catalogVersion = new AtomicLong(bootVersion);
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    // 상품이 변경(등록/수정/삭제/재고 변경)되었을 때 호출합니다.
+    public void productChanged(Long productId) {
+        long stamp = nextStamp();
+        productVersions.put(productId, stamp);
+        catalogVersion.accumulateAndGet(stamp, Math::max);
+    }
+
+    public long getProductVersion(Long productId) {
+        return productVersions.getOrDefault(productId, bootVersion);
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public String productEtag(Long productId) {
+        return "\"p" + productId + "-" + getProductVersion(productId) + "\"";
+    }
+
+    // 기간 검색(1d, 1w 등)의 결과는 날짜가 바뀌면 달라지므로 오늘 날짜도 포함합니다.
+    public String catalogEtag() {
+        return "\"c" + getCatalogVersion() + "-" + LocalDate.now() + "\"";
+    }
+
+    // 같은 밀리초에 여러 번 변경되어도 버전이 항상 증가하도록 만듭니다.
+    private long nextStamp() {
+        return lastStamp.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+    }
+}
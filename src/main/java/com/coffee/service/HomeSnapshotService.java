@@ -0,0 +1,165 @@
+package com.coffee.service;
+
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+    홈 페이지(GET /product)에 보여줄 상품 목록을 미리 json으로 만들어 두는 서비스입니다.
+    홈 페이지는 접속할 때마다 같은 내용을 요청하므로, filter 값별로 json 바이트 배열과 ETag를 만들어 두고
+    요청이 오면 데이터 베이스 조회와 json 변환 없이 그대로 내려 보냅니다.
+
+    상품이 변경되면 markDirty()가 호출되며, rebuild-delay-ms 이후에 백그라운드 스레드가 스냅샷을 다시 만듭니다.
+    짧은 시간 동안 여러 번 변경되어도 다시 만드는 작업은 1번만 수행합니다.(다시 만드는 동안에는 이전 스냅샷을 보여 줍니다.)
+*/
+@Service
+public class HomeSnapshotService {
+    private static final String NO_FILTER = "";
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxFilters;
+    private final long rebuildDelayMillis;
+
+    // filter 값 -> 스냅샷
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "home-snapshot-rebuilder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 다시 만드는 작업이 이미 예약되어 있으면 true
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+
+    // markDirty()가 호출될 때마다 1씩 증가합니다.(변경 전 데이터로 만든 스냅샷이 저장되지 않도록 확인하는 용도)
+    // 값의 확인/증가와 스냅샷 저장은 모두 this로 동기화합니다.
+    private long generation;
+
+    public HomeSnapshotService(ProductRepository productRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${product.home-snapshot.max-filters:32}") int maxFilters,
+                               @Value("${product.home-snapshot.rebuild-delay-ms:500}") long rebuildDelayMillis) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.maxFilters = maxFilters;
+        this.rebuildDelayMillis = rebuildDelayMillis;
+    }
+
+    // 애플리케이션이 구동되면 filter가 없는 기본 스냅샷을 미리 만들어 둡니다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        getSnapshot(NO_FILTER);
+    }
+
+    // 해당 filter의 스냅샷을 반환합니다. 처음 요청된 filter이면 이 자리에서 만들어서 저장합니다.
+    public Snapshot getSnapshot(String filter) {
+        String key = filter == null ? NO_FILTER : filter;
+
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long startGeneration = currentGeneration();
+        snapshot = build(key);
+
+        // 만드는 도중에 상품이 변경되었으면, 이번 요청에만 사용하고 저장하지 않습니다.
+        // (저장하면 이미 시작된 rebuildAll()이 이 filter를 건너뛰어서, 변경 전 스냅샷이 계속 남을 수 있습니다.)
+        // 임의의 filter 값으로 메모리가 계속 늘어나지 않도록, 저장할 수 있는 filter의 개수를 제한합니다.
+        synchronized (this) {
+            if (startGeneration == generation && snapshots.size() < maxFilters) {
+                snapshots.putIfAbsent(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    // 상품 정보가 변경되었음을 알려 줍니다.(실제 작업은 백그라운드에서 수행합니다.)
+    public void markDirty() {
+        synchronized (this) {
+            generation++;
+        }
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::rebuildAll, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuildAll() {
+        // 작업 시작 전에 플래그를 내려야, 다시 만드는 도중의 변경 사항도 다음 작업에 반영됩니다.
+        rebuildScheduled.set(false);
+
+        for (String key : snapshots.keySet()) {
+            try {
+                snapshots.put(key, build(key));
+            } catch (Exception err) {
+                // 실패하면 이전 스냅샷을 그대로 사용하고, 다음 변경 시에 다시 시도합니다.
+                System.err.println("홈 스냅샷 생성 실패(filter=" + key + ") : " + err.getMessage());
+            }
+        }
+    }
+
+    // filter가 있으면 이미지 이름에 filter가 포함된 상품들만, 없으면 전체 상품을 json으로 변환합니다.
+    private Snapshot build(String key) {
+        List<Product> products = key.isEmpty()
+                ? productRepository.findAll()
+                : productRepository.findByImageContaining(key);
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            return new Snapshot(json, createEtag(json));
+        } catch (JsonProcessingException err) {
+            throw new IllegalStateException("홈 스냅샷을 json으로 변환하지 못했습니다.", err);
+        }
+    }
+
+    // 내용이 같으면 ETag도 같도록, json 바이트의 SHA-256 해시 값으로 만듭니다.
+    private String createEtag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 한번 만들어진 스냅샷은 변경되지 않습니다.(변경 시에는 새로운 스냅샷으로 교체합니다.)
+    @Getter
+    public static class Snapshot {
+        private final byte[] json;
+        private final String etag;
+
+        private Snapshot(byte[] json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.coffee.service;
+
+import com.coffee.constant.ImageSize;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+    상품 이미지의 크기별 변형(썸네일, 카드, 상세) 이미지를 만들어 주는 서비스입니다.
+    상품 목록에서 원본 이미지를 그대로 내려 보내면, 작은 카드 몇 개를 위해 큰 이미지를 전부 다운로드하게 됩니다.
+        - 원본 이미지 옆에 "원본이름_크기.확장자" 형식으로 저장합니다. 예시) product_202510171430_thumb.jpg
+        - 이미지 변환은 요청 스레드가 아닌 백그라운드 스레드(최대 threads개, 대기 작업 최대 queue-size개)에서 수행합니다.
+        - 대기 작업이 가득 차면 새 작업은 버리고, 나중에 해당 크기가 요청될 때 다시 만듭니다.
+        - 디코딩 전에 이미지의 가로 x 세로 픽셀 수를 먼저 확인하여, max-pixels를 넘는 이미지는 변환하지 않습니다.
+          (작은 파일이 수십 GB 메모리로 풀리는 압축 폭탄(decompression bomb) 이미지 방지)
+    javax.imageio만 사용하므로 jpg, png, gif만 변환할 수 있으며, 그 외 형식은 원본을 그대로 사용합니다.
+*/
+@Service
+public class ImageVariantService {
+    private final ProductImageStorage productImageStorage;
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+
+    // 이미 대기 중이거나 변환 중인 원본 파일 이름(같은 작업을 중복으로 등록하지 않습니다.)
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(ProductImageStorage productImageStorage,
+                               @Value("${product.image.variant.threads:2}") int threads,
+                               @Value("${product.image.variant.queue-size:200}") int queueSize,
+                               @Value("${product.image.variant.max-pixels:25000000}") long maxPixels) {
+        this.productImageStorage = productImageStorage;
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // 거절된 작업은 generateAsync()에서 pending 목록에서 제거합니다.
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // 원본 이미지의 모든 크기별 이미지를 백그라운드에서 만듭니다.
+    public void generateAsync(String imageFileName) {
+        if (imageFileName == null || !isResizable(imageFileName) || !pending.add(imageFileName)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageFileName);
+                } finally {
+                    pending.remove(imageFileName);
+                }
+            });
+        } catch (RejectedExecutionException err) {
+            // 대기열이 가득 찼거나 종료 중입니다. 다음 요청 때 다시 등록할 수 있도록 pending에서 제거합니다.
+            pending.remove(imageFileName);
+            System.err.println("이미지 변환 대기열이 가득 차서 작업을 건너뜁니다 : " + imageFileName);
+        }
+    }
+
+    /*
+        요청한 크기의 이미지 파일 경로를 반환합니다.
+        크기별 이미지가 아직 없으면 변환 작업을 등록하고, 이번에는 원본 이미지의 경로를 반환합니다.
+    */
+    public Path resolve(String imageFileName, ImageSize size) {
+        Path original = productImageStorage.getImageDirectory().resolve(imageFileName);
+        if (size == null || !isResizable(imageFileName)) {
+            return original;
+        }
+
+        Path variant = productImageStorage.getImageDirectory().resolve(variantFileName(imageFileName, size));
+        if (Files.exists(variant)) {
+            return variant;
+        }
+
+        if (Files.exists(original)) {
+            generateAsync(imageFileName);
+        }
+        return original;
+    }
+
+    // 예시) product_202510171430.jpg + THUMB -> product_202510171430_thumb.jpg
+    public static String variantFileName(String imageFileName, ImageSize size) {
+        int dot = imageFileName.lastIndexOf('.');
+        return imageFileName.substring(0, dot) + "_" + size.getCode() + imageFileName.substring(dot);
+    }
+
+    private void generate(String imageFileName) {
+        Path original = productImageStorage.getImageDirectory().resolve(imageFileName);
+
+        try {
+            BufferedImage source = readWithinLimit(original);
+            if (source == null) { // ImageIO가 읽을 수 없는 형식이거나 너무 큰 이미지
+                return;
+            }
+
+            String format = formatOf(imageFileName);
+            for (ImageSize size : ImageSize.values()) {
+                Path variant = productImageStorage.getImageDirectory().resolve(variantFileName(imageFileName, size));
+                if (Files.exists(variant)) {
+                    continue;
+                }
+
+                // 원본이 더 작으면 늘리지 않고 원본과 같은 크기로 저장합니다.(매번 원본으로 대체하지 않도록)
+                BufferedImage resized = resize(source, Math.min(size.getWidth(), source.getWidth()), format);
+
+                Path temp = Files.createTempFile(productImageStorage.getImageDirectory(), "variant_", ProductImageStorage.TEMP_SUFFIX);
+                try {
+                    ImageIO.write(resized, format, temp.toFile());
+                    Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException err) {
+            System.err.println("크기별 이미지 생성 실패 : " + imageFileName + ", " + err.getMessage());
+        }
+    }
+
+    // 이미지 헤더의 가로, 세로 크기만 먼저 읽어서 최대 픽셀 수 이하인 경우에만 디코딩합니다.
+    private BufferedImage readWithinLimit(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels <= 0 || pixels > maxPixels) {
+                    System.err.println("이미지 크기가 너무 커서 변환하지 않습니다 : " + original.getFileName()
+                            + " (" + reader.getWidth(0) + "x" + reader.getHeight(0) + ")");
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, String format) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        // jpg는 투명도를 지원하지 않으므로 RGB, png와 gif는 투명도를 유지합니다.
+        int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private boolean isResizable(String imageFileName) {
+        return formatOf(imageFileName) != null;
+    }
+
+    // 파일 확장자로 ImageIO의 저장 형식을 구합니다.(변환할 수 없는 형식이면 null)
+    private String formatOf(String imageFileName) {
+        String lower = imageFileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "jpg";
+        } else if (lower.endsWith(".png")) {
+            return "png";
+        } else if (lower.endsWith(".gif")) {
+            return "gif";
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
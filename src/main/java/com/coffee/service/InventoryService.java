@@ -0,0 +1,464 @@
+package com.coffee.service;
+
+import com.coffee.common.LongIntHashMap;
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    상품별 재고를 메모리에 보관하고, 재고 예약(차감)과 반환을 메모리에서 처리합니다.
+    장바구니 담기와 주문 시 재고 확인을 위해 매번 products 테이블을 조회/변경하지 않아도 됩니다.
+        - 상품 id를 stripes개의 구역(stripe)으로 나누고, 구역마다 잠금을 따로 두어 서로 다른 상품의 예약이 경합하지 않도록 합니다.
+        - 메모리 재고 = 데이터 베이스 재고 + 아직 반영하지 않은 변경량(pending)
+        - 변경량은 flush-interval-ms마다 상품별 합계로 모아서 update 문장 1개로 데이터 베이스에 반영합니다.(write-behind)
+        - 메모리 재고도 상품의 재고 범위(Product.MIN_STOCK ~ MAX_STOCK)를 지킵니다.
+          최소 재고는 예약할 수 없고, 되돌려 줄 때 최대 재고를 넘는 부분은 버립니다.(데이터 베이스의 check 제약 조건과 같은 규칙)
+        - 한 상품의 반영이 실패해도 다른 상품의 변경량은 반영되도록, 묶음 반영에 실패하면 상품별로 나눠서 다시 반영합니다.
+        - 애플리케이션이 구동될 때와 반영에 실패했을 때는, 데이터 베이스 재고로 메모리 재고를 다시 맞춥니다.(reconcile)
+    주의) 재고를 서버 메모리에서 관리하므로, 서버가 1대일 때만 inventory.enabled=true로 사용해야 합니다.
+         반영 전에 서버가 비정상 종료되면 마지막 반영 이후의 변경량은 데이터 베이스에 반영되지 않습니다.
+*/
+@Service
+public class InventoryService {
+    private final ProductRepository productRepository;
+    private final ObjectProvider<ProductService> productServiceProvider; // ProductService도 이 클래스를 사용하므로 지연 조회합니다.
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    private final ReentrantLock flushLock = new ReentrantLock(); // 반영(flush)과 재고 맞추기(reconcile)가 겹치지 않도록 합니다.
+    private final LongAdder reservedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushFailureCount = new LongAdder();
+    private final LongAdder droppedDeltaCount = new LongAdder(); // 재고 범위를 벗어나 버린 변경량의 개수
+    private volatile LocalDateTime lastFlushedAt;
+    private volatile LocalDateTime lastReconciledAt;
+
+    public InventoryService(ProductRepository productRepository,
+                            ObjectProvider<ProductService> productServiceProvider,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventory.enabled:false}") boolean enabled,
+                            @Value("${inventory.stripes:64}") int stripeCount) {
+        this.productRepository = productRepository;
+        this.productServiceProvider = productServiceProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+
+        // 구역 번호를 비트 연산으로 구할 수 있도록 2의 거듭 제곱으로 맞춥니다.
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /*
+        모든 상품의 재고가 충분할 때만 재고를 예약(차감)하고, 성공 여부를 반환합니다.(quantities : 상품 id -> 수량)
+        예약 후에도 최소 재고(Product.MIN_STOCK) 이상 남아야 합니다.
+        관련된 구역들을 항상 같은 순서(구역 번호 순)로 잠그므로, 동시에 예약해도 교착 상태가 발생하지 않습니다.
+    */
+    public boolean reserve(Map<Long, Integer> quantities) {
+        loadMissing(quantities.keySet());
+
+        List<Stripe> locked = lockStripes(quantities.keySet());
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                int stock = stripeOf(entry.getKey()).stock.get(entry.getKey(), -1);
+                if (stock < 0 || stock - entry.getValue() < Product.MIN_STOCK) {
+                    rejectedCount.increment();
+                    return false;
+                }
+            }
+
+            quantities.forEach((productId, quantity) -> {
+                Stripe stripe = stripeOf(productId);
+                stripe.stock.addTo(productId, -quantity);
+                stripe.pending.addTo(productId, -quantity);
+            });
+            reservedCount.increment();
+            return true;
+
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    // 예약했던 재고를 되돌려 줍니다.(주문 취소 등)
+    // 그 사이에 관리자가 재고를 늘려서 최대 재고(Product.MAX_STOCK)를 넘게 되면, 넘는 부분은 버립니다.
+    public void release(Map<Long, Integer> quantities) {
+        List<Stripe> locked = lockStripes(quantities.keySet());
+        try {
+            quantities.forEach((productId, quantity) -> {
+                Stripe stripe = stripeOf(productId);
+                int applied = quantity;
+                if (stripe.stock.containsKey(productId)) {
+                    applied = Math.max(0, Math.min(quantity, Product.MAX_STOCK - stripe.stock.get(productId, 0)));
+                    stripe.stock.addTo(productId, applied);
+                }
+                if (applied != 0) {
+                    stripe.pending.addTo(productId, applied);
+                }
+            });
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    // 진행 중인 트랜잭션이 롤백되면 예약했던 재고를 되돌려 줍니다.(reserve() 직후에 호출합니다.)
+    public void releaseOnRollback(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Map<Long, Integer> copied = new HashMap<>(quantities);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(copied);
+                }
+            }
+        });
+    }
+
+    // 진행 중인 트랜잭션이 커밋된 이후에 재고를 되돌려 줍니다.(트랜잭션이 없으면 즉시 반환)
+    public void releaseAfterCommit(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(quantities);
+            return;
+        }
+
+        Map<Long, Integer> copied = new HashMap<>(quantities);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(copied);
+            }
+        });
+    }
+
+    // 예약 가능한 재고 수량(최소 재고 제외, 메모리에 없는 상품이면 -1)
+    public int getAvailable(Long productId) {
+        Stripe stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            int stock = stripe.stock.get(productId, -1);
+            return stock < 0 ? -1 : Math.max(0, stock - Product.MIN_STOCK);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /*
+        관리자가 상품을 등록/수정하여 데이터 베이스의 재고가 바뀌었을 때 호출합니다.(커밋 이후)
+        반영(flush) 중에는 꺼낸 변경량이 pending에 없으므로, 저장한 재고 + pending으로 계산하면 그 변경량이 빠집니다.
+        그래서 반영이 끝나기를 기다린 다음(flushLock), 데이터 베이스 재고 + 아직 반영하지 않은 변경량으로 다시 계산합니다.
+    */
+    public void productChanged(Long productId) {
+        flushLock.lock();
+        try {
+            reloadLocked(productId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void productDeleted(Long productId) {
+        Stripe stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            stripe.stock.remove(productId);
+            stripe.pending.remove(productId); // 삭제된 상품의 변경량은 반영할 행이 없습니다.
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /*
+        쌓여 있는 변경량을 상품별 합계로 모아서 update 문장 1개로 데이터 베이스에 반영합니다.
+        반영에 실패하면 상품별로 나눠서 다시 반영합니다.(flushEach 참고)
+            - 재고 범위를 벗어나는 상품(변경되지 않은 행)은 다시 시도해도 계속 실패하므로, 변경량을 버리고 그 상품만 데이터 베이스 재고로 맞춥니다.
+            - 그 밖의 이유(연결 실패 등)로 실패한 상품은 변경량을 다시 쌓아 두고, 데이터 베이스 재고로 메모리 재고를 다시 맞춥니다.
+    */
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new LinkedHashMap<>();
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    stripe.pending.forEach((productId, delta) -> {
+                        if (delta != 0) {
+                            deltas.put(productId, delta);
+                        }
+                    });
+                    stripe.pending.clear();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // 변경되지 않은 상품이 있으면 어느 상품인지 알 수 없으므로, 묶음 전체를 되돌리고 상품별로 다시 반영합니다.
+                    if (productRepository.addStocks(deltas) != deltas.size()) {
+                        throw new IllegalStateException("재고 범위를 벗어나거나 삭제된 상품이 있습니다.");
+                    }
+                });
+                flushCount.increment();
+                lastFlushedAt = LocalDateTime.now();
+
+            } catch (RuntimeException err) {
+                flushFailureCount.increment();
+                System.err.println("재고 변경량 반영 실패, 상품별로 다시 반영합니다 : " + deltas.size() + "개 상품, " + err.getMessage());
+
+                Map<Long, Integer> failed = flushEach(deltas);
+                if (!failed.isEmpty()) {
+                    // 메모리 재고에는 이미 포함되어 있으므로 변경량만 다시 쌓아 둡니다.
+                    failed.forEach((productId, delta) -> stripeOf(productId).addPending(productId, delta));
+                    reconcileLocked();
+                }
+            }
+
+            // 데이터 베이스의 재고가 바뀌었으므로, 재고가 포함된 캐시들을 비웁니다.
+            productServiceProvider.getObject().productStockChanged(List.copyOf(deltas.keySet()));
+
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // 상품마다 따로(각각의 트랜잭션으로) 변경량을 반영하고, 다시 시도해야 하는 상품의 변경량을 반환합니다.
+    private Map<Long, Integer> flushEach(Map<Long, Integer> deltas) {
+        Map<Long, Integer> failed = new LinkedHashMap<>();
+        deltas.forEach((productId, delta) -> {
+            try {
+                if (productRepository.addStocks(Map.of(productId, delta)) == 0) {
+                    droppedDeltaCount.increment();
+                    System.err.println("재고 범위를 벗어난 변경량을 버립니다 : 상품 번호 " + productId + ", 변경량 " + delta);
+                    reloadLocked(productId);
+                }
+            } catch (RuntimeException err) {
+                failed.put(productId, delta);
+            }
+        });
+        return failed;
+    }
+
+    // 상품 1개의 메모리 재고를 데이터 베이스 재고 + 아직 반영하지 않은 변경량으로 다시 계산합니다.(flushLock을 잡은 상태에서 호출)
+    private void reloadLocked(Long productId) {
+        Optional<Integer> stock;
+        try {
+            stock = productRepository.findStockById(productId);
+        } catch (RuntimeException err) {
+            System.err.println("재고 맞추기 실패 : 상품 번호 " + productId + ", " + err.getMessage());
+            return;
+        }
+
+        Stripe stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            if (stock.isPresent()) {
+                stripe.stock.put(productId, stock.get() + stripe.pending.get(productId, 0));
+            } else {
+                stripe.stock.remove(productId);
+                stripe.pending.remove(productId);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // 데이터 베이스 재고 + 아직 반영하지 않은 변경량으로 메모리 재고를 다시 계산합니다.
+    public void reconcile() {
+        flushLock.lock();
+        try {
+            reconcileLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void reconcileLocked() {
+        List<Object[]> rows;
+        try {
+            rows = productRepository.findStockRows();
+        } catch (RuntimeException err) {
+            System.err.println("재고 맞추기 실패 : " + err.getMessage()); // 다음 반영 실패 또는 재시작 때 다시 시도합니다.
+            return;
+        }
+
+        // 구역별로 나눈 다음, 구역마다 잠금을 잡고 한번에 교체합니다.
+        List<List<Object[]>> rowsByStripe = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            rowsByStripe.add(new ArrayList<>());
+        }
+        for (Object[] row : rows) {
+            rowsByStripe.get(stripeIndex((Long) row[0])).add(row);
+        }
+
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            stripe.lock.lock();
+            try {
+                stripe.stock.clear();
+                for (Object[] row : rowsByStripe.get(i)) {
+                    Long productId = (Long) row[0];
+                    int stock = row[1] == null ? 0 : (Integer) row[1];
+                    stripe.stock.put(productId, stock + stripe.pending.get(productId, 0));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        lastReconciledAt = LocalDateTime.now();
+    }
+
+    // 메모리에 없는 상품(구동 이후 다른 경로로 추가된 상품 등)의 재고를 데이터 베이스에서 읽어 옵니다.
+    private void loadMissing(Collection<Long> productIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (getAvailable(productId) < 0) {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        productRepository.findAllById(missing).forEach(product -> {
+            Stripe stripe = stripeOf(product.getId());
+            stripe.lock.lock();
+            try {
+                if (!stripe.stock.containsKey(product.getId())) { // 그 사이에 다른 스레드가 읽어 왔으면 그대로 둡니다.
+                    int stock = product.getStock();
+                    stripe.stock.put(product.getId(), stock + stripe.pending.get(product.getId(), 0));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    // 애플리케이션이 종료될 때 남은 변경량을 반영합니다.
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> stats() {
+        int products = 0, pendingProducts = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                products += stripe.stock.size();
+                pendingProducts += stripe.pending.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("stripes", stripes.length);
+        stats.put("products", products);
+        stats.put("pendingProducts", pendingProducts);
+        stats.put("reserved", reservedCount.sum());
+        stats.put("rejected", rejectedCount.sum());
+        stats.put("flushes", flushCount.sum());
+        stats.put("flushFailures", flushFailureCount.sum());
+        stats.put("droppedDeltas", droppedDeltaCount.sum());
+        stats.put("lastFlushedAt", String.valueOf(lastFlushedAt));
+        stats.put("lastReconciledAt", String.valueOf(lastReconciledAt));
+        return stats;
+    }
+
+    private List<Stripe> lockStripes(Collection<Long> productIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long productId : productIds) {
+            indexes.add(stripeIndex(productId));
+        }
+
+        List<Stripe> locked = new ArrayList<>();
+        for (int index : indexes) {
+            stripes[index].lock.lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    private void unlock(List<Stripe> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(Long productId) {
+        return stripes[stripeIndex(productId)];
+    }
+
+    private int stripeIndex(Long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+
+    // 구역 1개 : 잠금, 상품 id -> 메모리 재고, 상품 id -> 아직 반영하지 않은 변경량
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongIntHashMap stock = new LongIntHashMap();
+        private final LongIntHashMap pending = new LongIntHashMap();
+
+        private void addPending(long productId, int delta) {
+            lock.lock();
+            try {
+                pending.addTo(productId, delta);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -9,6 +9,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Service // 서비스 역할을 하며, 주로 로직 처리에 활용되는 자바 클래스입니다.
@@ -39,4 +42,13 @@ public class MemberService {
     public Optional<Member> findMemberById(Long memberId) {
         return this.memberRepository.findById(memberId);
     }
+
+    // 여러 회원을 1번의 쿼리로 조회합니다.(회원 id -> 회원)
+    public Map<Long, Member> findMembersByIds(Collection<Long> memberIds) {
+        Map<Long, Member> members = new HashMap<>();
+        for (Member member : memberRepository.findAllById(memberIds)) {
+            members.put(member.getId(), member);
+        }
+        return members;
+    }
 }
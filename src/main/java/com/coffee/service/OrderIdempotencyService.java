@@ -0,0 +1,234 @@
+package com.coffee.service;
+
+import com.coffee.common.TtlLruCache;
+import com.coffee.dto.OrderDto;
+import com.coffee.entity.IdempotencyRecord;
+import com.coffee.repository.IdempotencyRecordRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+    주문 요청의 Idempotency-Key 헤더를 처리합니다.
+    클라이언트가 응답 시간 초과 후 같은 주문을 다시 보내도 주문이 2번 만들어지거나 재고가 2번 차감되지 않도록 합니다.
+        - 처음 들어온 키는 주문을 실행하고, 결과(송장 번호)를 ttl-minutes분 동안 기억합니다.(최대 max-size개)
+        - 같은 키가 다시 들어오면 주문을 실행하지 않고 기억해 둔 송장 번호를 반환합니다.
+        - 처음 요청이 아직 처리 중일 때 같은 키가 들어오면, 새로 실행하지 않고 처음 요청의 결과를 최대 wait-ms 동안 함께 기다립니다.
+          그 안에 끝나지 않으면 PendingOrderException(202 응답)이 발생합니다.
+        - 처리 중인 키는 크기 제한이 있는 캐시가 아니라 별도의 맵(inFlight)에 두므로, 다른 키에 밀려서 지워지지 않습니다.
+          (지워지면 같은 키의 재시도가 주문을 다시 만들 수 있습니다.) 처리가 끝나면 캐시로 옮깁니다.
+        - 주문이 실패하면(재고 부족 등) 키를 지우므로, 같은 키로 다시 시도할 수 있습니다.
+        - 주문 접수 대기열의 대기 시간이 지난 경우(PendingOrderException)는 실패가 아니므로 키를 지우지 않습니다.
+          키는 대기열의 처리 결과를 기다리며, 같은 키로 다시 요청하면 그 결과를 받습니다.(처리가 실패로 끝나면 그때 키를 지웁니다.)
+        - 같은 키로 내용이 다른 주문을 보내면 IllegalArgumentException이 발생합니다.
+    order.idempotency.persist=true이면 처리 결과를 idempotency_keys 테이블에도 저장합니다.(서버 재시작, 여러 서버 대응)
+    주의) 테이블 저장은 주문 커밋 이후에 하므로, 그 사이에 서버가 종료되면 해당 키는 기억되지 않습니다.
+*/
+@Service
+public class OrderIdempotencyService {
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TtlLruCache<String, Entry> cache; // 처리가 끝난 키
+    private final Map<String, Entry> inFlight = new ConcurrentHashMap<>(); // 처리 중인 키(제거되지 않음)
+    private final boolean persist;
+    private final Duration ttl;
+    private final long waitMillis;
+
+    public OrderIdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                                   @Value("${order.idempotency.max-size:10000}") int maxSize,
+                                   @Value("${order.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                   @Value("${order.idempotency.persist:false}") boolean persist,
+                                   @Value("${order.idempotency.wait-ms:10000}") long waitMillis) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.cache = new TtlLruCache<>(maxSize, ttl);
+        this.persist = persist;
+        this.waitMillis = waitMillis;
+    }
+
+    /*
+        memberId + key 조합으로 action(주문 생성)을 최대 1번만 실행합니다.
+        반환 값 : 송장 번호와 재사용 여부(true이면 이전 요청의 결과)
+    */
+    public Result execute(Long memberId, String key, OrderDto dto, Supplier<Long> action) {
+        if (key.isBlank() || key.length() > 100) {
+            throw new IllegalArgumentException("Idempotency-Key는 1자 이상 100자 이하이어야 합니다.");
+        }
+
+        String cacheKey = memberId + ":" + key;
+        String fingerprint = fingerprint(dto);
+
+        Entry entry = find(cacheKey);
+        if (entry == null && persist) { // 메모리에 없으면 테이블에서 찾아 봅니다.(잠금 밖에서 조회)
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(cacheKey);
+            if (record.isPresent()) {
+                entry = new Entry(record.get().getFingerprint(), CompletableFuture.completedFuture(record.get().getOrderId()));
+            }
+        }
+
+        boolean owner = false;
+        synchronized (this) { // 확인과 등록을 한번에 처리해야 동시에 들어온 같은 키 중 1개만 실행됩니다.
+            Entry current = find(cacheKey);
+            if (current != null) {
+                entry = current;
+            } else if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>());
+                inFlight.put(cacheKey, entry);
+                owner = true;
+            } else { // 테이블에서 찾은 처리 결과
+                cache.put(cacheKey, entry);
+            }
+        }
+
+        if (!entry.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("같은 Idempotency-Key로 다른 내용의 주문을 요청했습니다.");
+        }
+
+        if (owner) {
+            Long orderId;
+            try {
+                orderId = action.get();
+            } catch (OrderPipelineService.PendingOrderException err) {
+                // 아직 처리 중인 주문입니다. 키를 대기열의 처리 결과에 연결해 두고, 결과가 나오면 그때 완료합니다.
+                entry.ticket = err.getTicket();
+                completeLater(cacheKey, fingerprint, entry, err.getTicket().getFuture());
+                throw err;
+            } catch (RuntimeException err) {
+                invalidate(cacheKey, entry); // 실패한 주문은 같은 키로 다시 시도할 수 있습니다.
+                entry.getFuture().completeExceptionally(err);
+                throw err;
+            }
+
+            finish(cacheKey, entry);
+            entry.getFuture().complete(orderId);
+            if (persist) {
+                save(cacheKey, fingerprint, orderId);
+            }
+            return new Result(orderId, false);
+        }
+
+        try {
+            return new Result(entry.getFuture().get(waitMillis, TimeUnit.MILLISECONDS), true);
+        } catch (ExecutionException err) { // 함께 기다리던 처음 요청이 실패한 경우
+            if (err.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(err.getCause());
+        } catch (TimeoutException err) { // 처음 요청이 아직 처리 중인 경우(실패가 아니므로 다시 주문하면 안됨)
+            throw entry.getTicket() != null
+                    ? new OrderPipelineService.PendingOrderException(entry.getTicket())
+                    : new OrderPipelineService.PendingOrderException("같은 Idempotency-Key의 주문이 아직 처리 중입니다. 잠시 후 같은 키로 다시 요청해 주세요.");
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 처리가 중단되었습니다.");
+        }
+    }
+
+    // 처리 중인 키를 먼저 찾고, 없으면 처리가 끝난 키를 찾습니다.
+    private Entry find(String cacheKey) {
+        Entry entry = inFlight.get(cacheKey);
+        return entry != null ? entry : cache.get(cacheKey);
+    }
+
+    // 처리가 끝난 키를 캐시로 옮깁니다.
+    private synchronized void finish(String cacheKey, Entry entry) {
+        if (inFlight.remove(cacheKey, entry)) {
+            cache.put(cacheKey, entry);
+        }
+    }
+
+    private void completeLater(String cacheKey, String fingerprint, Entry entry, CompletableFuture<Long> result) {
+        result.whenComplete((orderId, err) -> {
+            if (err == null) {
+                finish(cacheKey, entry);
+                entry.getFuture().complete(orderId);
+                if (persist) {
+                    save(cacheKey, fingerprint, orderId);
+                }
+            } else {
+                invalidate(cacheKey, entry);
+                entry.getFuture().completeExceptionally(err);
+            }
+        });
+    }
+
+    // 키가 아직 entry를 가리키고 있을 때만 지웁니다.(그 사이에 같은 키로 새 요청이 등록되었으면 그대로 둡니다.)
+    private synchronized void invalidate(String cacheKey, Entry entry) {
+        inFlight.remove(cacheKey, entry);
+        if (cache.get(cacheKey) == entry) {
+            cache.invalidate(cacheKey);
+        }
+    }
+
+    private void save(String cacheKey, String fingerprint, Long orderId) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(cacheKey);
+        record.setFingerprint(fingerprint);
+        record.setOrderId(orderId);
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (DataIntegrityViolationException err) {
+            System.err.println("Idempotency-Key 저장 실패 : " + cacheKey); // 다른 서버가 먼저 저장한 경우
+        }
+    }
+
+    // 보관 기간이 지난 키를 테이블에서 삭제합니다.(메모리의 키는 TtlLruCache가 알아서 제거합니다.)
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpiredRecords() {
+        if (persist) {
+            idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(cache.stats());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    // 주문 요청 본문의 SHA-256 해시 값(16진수)
+    private static String fingerprint(OrderDto dto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(dto.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err); // 모든 JVM은 SHA-256을 지원해야 합니다.
+        }
+    }
+
+    // 키 1개에 대한 요청 내용과 처리 결과(처리 중이면 완료되지 않은 future)
+    @Getter
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Long> future;
+        private volatile OrderPipelineService.Ticket ticket; // 주문 접수 대기열에서 처리 중이면 그 접수 정보
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final Long orderId;
+        private final boolean replayed; // true이면 이전 요청의 결과를 다시 보낸 것입니다.
+    }
+}
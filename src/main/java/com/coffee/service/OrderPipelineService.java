@@ -0,0 +1,364 @@
+package com.coffee.service;
+
+import com.coffee.dto.OrderDto;
+import com.coffee.dto.OrderItemDto;
+import com.coffee.entity.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    행사(타임 세일) 기간처럼 주문이 몰릴 때 사용하는 주문 접수 대기열입니다.(order.pipeline.enabled=true 일 때만 동작)
+    요청마다 트랜잭션을 만들면 인기 상품의 같은 행(재고)을 두고 모든 요청이 경쟁하게 됩니다.
+        1. 요청 스레드는 주문을 검사한 다음 대기열(최대 queue-capacity건)에 넣고, 접수 번호(ticket)를 받습니다.
+        2. 대기열은 상품 번호 기준으로 shards개로 나뉘며, 대기열마다 1개의 스레드만 데이터 베이스에 기록합니다.
+           주문 상품이 모두 같은 대기열에 속하는 주문만 대기열에 넣으므로, 대기열 안에서는 상품마다 기록 스레드가 1개입니다.
+           주문 상품이 여러 대기열에 걸치는 주문은 대기열에 넣지 않고, 요청 스레드에서 기존 방식(OrderService.createOrder())으로 바로 처리합니다.
+           (대기열 밖의 주문, 장바구니, 주문 취소 등은 select ... for update 잠금(또는 메모리 재고)으로 재고를 변경합니다.)
+        3. 기록 스레드는 최대 linger-ms 동안 최대 max-batch-size건을 모아서 트랜잭션 1개로 처리합니다.
+           (상품별 재고 update 1번 + 주문 insert는 jdbc batch, OrderService.createOrdersInBatch() 참고)
+        4. 처리 결과(송장 번호 또는 실패 사유)는 CompletableFuture로 전달되며, 접수 번호로 조회할 수도 있습니다.
+    주의) 대기열은 메모리에만 있으므로, 서버가 종료되면 아직 처리되지 않은 주문은 실패 처리됩니다.
+*/
+@Service
+public class OrderPipelineService {
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int shards;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final long retentionMillis;
+
+    private final List<BlockingQueue<Ticket>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = false;
+
+    // 접수 번호 -> 접수 정보(처리가 끝난 후 retention-minutes분 동안 조회할 수 있습니다.)
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    // 처리 현황
+    private final long startedAt = System.currentTimeMillis();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder(); // 묶음 처리에 실패해서 1건씩 다시 처리한 횟수
+    private final LongAdder directOrders = new LongAdder(); // 여러 대기열에 걸쳐서 대기열 없이 바로 처리한 주문 건수
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public OrderPipelineService(OrderService orderService,
+                                @Value("${order.pipeline.enabled:false}") boolean enabled,
+                                @Value("${order.pipeline.shards:4}") int shards,
+                                @Value("${order.pipeline.queue-capacity:10000}") int queueCapacity,
+                                @Value("${order.pipeline.max-batch-size:200}") int maxBatchSize,
+                                @Value("${order.pipeline.linger-ms:5}") long lingerMillis,
+                                @Value("${order.pipeline.result-retention-minutes:5}") long retentionMinutes) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.shards = shards;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        for (int i = 0; i < shards; i++) {
+            // 전체 대기 건수가 queue-capacity를 넘지 않도록 대기열마다 나눠서 가집니다.
+            BlockingQueue<Ticket> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / shards));
+            Thread writer = new Thread(() -> runWriter(queue), "order-pipeline-" + i);
+            writer.setDaemon(true);
+            queues.add(queue);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+        주문을 대기열에 넣고 접수 정보를 반환합니다.
+        주문 상품이 여러 대기열에 걸치면 바로 처리하고, 처리가 끝난 접수 정보를 반환합니다.
+        잘못된 주문이면 IllegalArgumentException, 대기열이 가득 찼으면 IllegalStateException을 발생시킵니다.
+    */
+    public Ticket submit(OrderDto dto) {
+        if (!running) {
+            throw new IllegalStateException("주문 접수 대기열이 동작하고 있지 않습니다.");
+        }
+        if (dto.getOrderItems() == null || dto.getOrderItems().isEmpty()) {
+            throw new IllegalArgumentException("주문 상품이 없습니다.");
+        }
+
+        // 주문 상품이 속한 대기열을 정합니다.(모두 같은 대기열이어야 합니다. 클래스 설명 참고)
+        int shard = -1;
+        boolean multiShard = false;
+        for (OrderItemDto item : dto.getOrderItems()) {
+            if (item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("주문 상품 정보가 올바르지 않습니다.");
+            }
+            int itemShard = shardOf(item.getProductId());
+            if (shard >= 0 && shard != itemShard) {
+                multiShard = true;
+            }
+            shard = itemShard;
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), dto);
+        tickets.put(ticket.getId(), ticket);
+
+        if (multiShard) {
+            // 여러 대기열의 기록 스레드가 같은 상품을 변경하지 않도록, 대기열 없이 요청 스레드에서 처리합니다.
+            directOrders.increment();
+            try {
+                complete(ticket, orderService.createOrder(dto), null);
+            } catch (RuntimeException err) {
+                complete(ticket, null, err);
+            }
+        } else if (!queues.get(shard).offer(ticket)) {
+            tickets.remove(ticket.getId());
+            throw new IllegalStateException("주문이 많아 접수할 수 없습니다. 잠시 후 다시 시도해 주세요.");
+        }
+        submitted.increment();
+        return ticket;
+    }
+
+    private int shardOf(Long productId) {
+        return (int) Math.floorMod(productId, (long) shards);
+    }
+
+    // 주문을 대기열에 넣고 처리가 끝날 때까지 기다린 다음 송장 번호를 반환합니다.(기존 주문 API와 같은 응답용)
+    // 시간 안에 끝나지 않으면 PendingOrderException이 발생합니다.(주문은 실패한 것이 아니라 아직 처리 중입니다.)
+    public Long submitAndWait(OrderDto dto, long timeoutMillis) {
+        Ticket ticket = submit(dto);
+        try {
+            return ticket.getFuture().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException err) {
+            if (err.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(err.getCause());
+        } catch (TimeoutException err) {
+            throw new PendingOrderException(ticket);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 처리가 중단되었습니다.");
+        }
+    }
+
+    // 접수 번호로 처리 결과를 조회합니다.(없거나 보관 기간이 지났으면 null)
+    public Map<String, Object> getStatus(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return null;
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ticket", ticketId);
+        CompletableFuture<Long> future = ticket.getFuture();
+        if (!future.isDone()) {
+            status.put("status", "PENDING");
+        } else if (future.isCompletedExceptionally()) {
+            status.put("status", "FAILED");
+            status.put("message", future.handle((orderId, err) -> err.getMessage()).join());
+        } else {
+            status.put("status", "COMPLETED");
+            status.put("orderId", future.join());
+        }
+        return status;
+    }
+
+    private void runWriter(BlockingQueue<Ticket> queue) {
+        List<Ticket> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Ticket first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // 최대 linger-ms 동안 다음 주문을 더 모읍니다.
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Ticket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                process(batch);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // 종료 시 남아 있는 주문은 실패 처리합니다.
+        Ticket ticket;
+        while ((ticket = queue.poll()) != null) {
+            complete(ticket, null, new IllegalStateException("서버가 종료되어 주문이 처리되지 않았습니다."));
+        }
+    }
+
+    private void process(List<Ticket> batch) {
+        batches.increment();
+        List<OrderDto> dtos = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            dtos.add(ticket.getDto());
+        }
+
+        try {
+            // createOrdersInBatch()가 반환되면 트랜잭션이 커밋된 상태입니다.
+            List<OrderService.BatchResult> results = orderService.createOrdersInBatch(dtos);
+            for (int i = 0; i < batch.size(); i++) {
+                OrderService.BatchResult result = results.get(i);
+                complete(batch.get(i), result.getOrder(), result.getError());
+            }
+        } catch (RuntimeException err) {
+            // 교착 상태 등으로 묶음 전체가 실패하면, 한 건씩 기존 방식으로 다시 처리합니다.
+            System.err.println("주문 묶음 처리 실패, 1건씩 다시 처리합니다 : " + err.getMessage());
+            fallbackBatches.increment();
+            for (Ticket ticket : batch) {
+                try {
+                    complete(ticket, orderService.createOrder(ticket.getDto()), null);
+                } catch (RuntimeException orderErr) {
+                    complete(ticket, null, orderErr);
+                }
+            }
+        }
+    }
+
+    private void complete(Ticket ticket, Order order, RuntimeException error) {
+        long latency = System.nanoTime() - ticket.getEnqueuedNanos();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        ticket.completedAt = System.currentTimeMillis();
+
+        if (error == null) {
+            succeeded.increment();
+            ticket.getFuture().complete(order.getId());
+        } else {
+            failed.increment();
+            ticket.getFuture().completeExceptionally(error);
+        }
+    }
+
+    // 보관 기간이 지난 처리 결과를 삭제합니다.
+    @Scheduled(fixedDelay = 60000)
+    public void purgeCompletedTickets() {
+        long threshold = System.currentTimeMillis() - retentionMillis;
+        tickets.values().removeIf(ticket -> ticket.completedAt > 0 && ticket.completedAt < threshold);
+    }
+
+    // 처리량과 지연 시간 등 대기열의 현황을 반환합니다.
+    // 처리량(averageOrdersPerSecondSinceStart)은 서버 시작 이후 전체 평균이므로, 현재 처리 속도를 보려면
+    // completed 값을 일정 간격으로 두 번 조회하여 차이를 시간으로 나눠야 합니다.
+    public Map<String, Object> stats() {
+        long completed = succeeded.sum() + failed.sum();
+        long batchCount = batches.sum();
+        double uptimeSeconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+
+        int queued = 0;
+        for (BlockingQueue<Ticket> queue : queues) {
+            queued += queue.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("shards", shards);
+        stats.put("queued", queued);
+        stats.put("submitted", submitted.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("completed", completed);
+        stats.put("uptimeSeconds", uptimeSeconds);
+        stats.put("batches", batchCount);
+        stats.put("fallbackBatches", fallbackBatches.sum());
+        stats.put("directOrders", directOrders.sum());
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) completed / batchCount);
+        stats.put("averageOrdersPerSecondSinceStart", completed / uptimeSeconds);
+        stats.put("averageLatencyMs", completed == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / completed);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread writer : writers) {
+            writer.interrupt();
+        }
+    }
+
+    /*
+        submitAndWait()의 대기 시간이 지났지만 주문이 아직 대기열에서 처리 중인 경우입니다.
+        주문은 나중에 성공할 수도 있으므로 실패로 보면 안됩니다.(같은 주문을 다시 보내면 2번 주문될 수 있습니다.)
+        결과는 접수 번호(/order/async/{접수 번호}) 또는 getTicket().getFuture()로 확인합니다.(접수 번호가 없으면 getTicket()은 null)
+    */
+    @Getter
+    public static class PendingOrderException extends IllegalStateException {
+        private final Ticket ticket;
+
+        PendingOrderException(Ticket ticket) {
+            super("주문 처리 시간이 초과되었습니다. 접수 번호로 처리 결과를 확인해 주세요. 접수 번호 : " + ticket.getId());
+            this.ticket = ticket;
+        }
+
+        // 대기열을 거치지 않고 처리 중인 경우(접수 번호 없음, OrderIdempotencyService 참고)
+        PendingOrderException(String message) {
+            super(message);
+            this.ticket = null;
+        }
+    }
+
+    // 대기열에 들어간 주문 1건의 접수 정보
+    @Getter
+    public static class Ticket {
+        private final String id;
+        private final OrderDto dto;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private volatile long completedAt = 0; // 처리가 끝난 시각(0이면 처리 중)
+
+        Ticket(String id, OrderDto dto) {
+            this.id = id;
+            this.dto = dto;
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.coffee.service;
 
+import com.coffee.common.CursorCodec;
 import com.coffee.constant.OrderStatus;
+import com.coffee.constant.OrderStatusChangeResult;
 import com.coffee.constant.Role;
 import com.coffee.dto.OrderDetailDto;
 import com.coffee.dto.OrderDto;
 import com.coffee.dto.OrderItemDto;
+import com.coffee.dto.OrderSearchDto;
+import com.coffee.dto.SliceResponseDto;
 import com.coffee.entity.Member;
 import com.coffee.entity.Order;
 import com.coffee.entity.OrderProduct;
 import com.coffee.entity.Product;
 import com.coffee.repository.OrderRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +41,8 @@ public class OrderService {
     private final MemberService memberService;
     private final ProductService productService;
     private final CartProductService cartProductService;
+    private final InventoryService inventoryService;
+    private final SalesRollupService salesRollupService;
 
     /**
      * 주문 생성 로직
@@ -34,32 +50,215 @@ public class OrderService {
      * - 상품 재고 확인 및 차감
      * - 주문 및 주문상품 생성
      * - 장바구니 품목 삭제
+     * - 날짜별/상품별 판매 합계 갱신
+     * 하나의 트랜잭션으로 처리하므로, 중간에 하나라도 실패하면 재고 차감과 장바구니 삭제가 모두 취소됩니다.
      */
+    @Transactional
     public Order createOrder(OrderDto dto) {
         // 1. 회원 확인
         Optional<Member> optionalMember = memberService.findMemberById(dto.getMemberId());
         if (!optionalMember.isPresent()) {
-            throw new RuntimeException("회원이 존재하지 않습니다.");
+            throw new IllegalArgumentException("회원이 존재하지 않습니다.");
         }
         Member member = optionalMember.get();
 
-        // 2. 주문 객체 생성
+        // 2. 주문 수량 집계
+        // 상품 조회, 재고 차감, 장바구니 삭제를 품목마다 하지 않고 각각 쿼리 1번으로 처리합니다.
+        // (품목 개수와 관계 없이 주문 1건당 실행되는 sql 문장의 개수가 일정합니다.)
+        List<Long> cartProductIds = new ArrayList<>();
+        Map<Long, Integer> quantities = collectQuantities(dto, cartProductIds);
+
+        // 3. 주문 및 주문상품 객체 생성
+        Map<Long, Product> products = productService.findProductsByIds(quantities.keySet());
+        Order order = buildOrder(dto, member, products);
+
+        // 4. 재고 차감 및 장바구니 품목 삭제
+        // 재고를 읽어서 비교한 다음 자바에서 빼면, 동시에 들어온 주문들이 모두 확인을 통과해서 재고보다 많이 팔 수 있습니다.
+        // "재고가 충분할 때만 차감"하는 update 문장으로 처리하고, 변경된 행이 상품 개수보다 적으면 재고 부족입니다.
+        // 메모리 재고를 사용하면 메모리에서 예약하고, 데이터 베이스에는 InventoryService가 나중에 모아서 반영합니다.
+        if (!reserveStocks(quantities)) {
+            throw new IllegalStateException("재고 수량이 부족합니다.");
+        }
+        cartProductService.deleteCartProductsByIds(cartProductIds);
+
+        // 5. DB 저장(주문 상품들은 jdbc batch로 한번에 insert 됩니다.)
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordOrders(List.of(savedOrder));
+
+        // 6. 재고가 바뀐 상품들은 커밋 이후에 상품 상세 캐시에서 제거합니다.
+        productService.productStockChanged(List.copyOf(quantities.keySet()));
+
+        return savedOrder;
+    }
+
+    // 재고를 차감(또는 메모리에서 예약)하고 성공 여부를 반환합니다.
+    // 메모리에서 예약한 재고는 트랜잭션이 롤백되면 되돌려 줍니다.
+    private boolean reserveStocks(Map<Long, Integer> quantities) {
+        if (!inventoryService.isEnabled()) {
+            return productService.decreaseStocks(quantities);
+        }
+
+        if (!inventoryService.reserve(quantities)) {
+            return false;
+        }
+        inventoryService.releaseOnRollback(quantities);
+        return true;
+    }
+
+    /**
+     * 여러 건의 주문을 하나의 트랜잭션으로 한꺼번에 처리합니다.(OrderPipelineService의 묶음 처리에서 사용)
+     * - 회원과 상품은 각각 쿼리 1번으로 조회하고, 상품 행은 트랜잭션이 끝날 때까지 잠급니다.(select ... for update)
+     * - 잠근 재고를 기준으로 먼저 들어온 주문부터 재고를 배정하고, 재고가 부족한 주문만 실패 처리합니다.
+     * - 재고 차감(상품별 합계) update 1번, 장바구니 삭제 1번, 주문 insert는 jdbc batch로 실행합니다.
+     * 반환 값 : dtos와 같은 순서의 처리 결과 목록
+     */
+    @Transactional
+    public List<BatchResult> createOrdersInBatch(List<OrderDto> dtos) {
+        Set<Long> memberIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OrderDto dto : dtos) {
+            memberIds.add(dto.getMemberId());
+            for (OrderItemDto item : dto.getOrderItems()) {
+                productIds.add(item.getProductId());
+            }
+        }
+
+        Map<Long, Member> members = memberService.findMembersByIds(memberIds);
+        if (inventoryService.isEnabled()) {
+            return createOrdersInBatchWithInventory(dtos, members, productService.findProductsByIds(productIds));
+        }
+        Map<Long, Product> products = productService.findProductsByIdsForUpdate(productIds);
+
+        Map<Long, Integer> available = new HashMap<>(); // 상품 id -> 이번 묶음에서 아직 배정하지 않은 재고(최소 재고 제외)
+        products.values().forEach(product -> available.put(product.getId(), product.getStock() - Product.MIN_STOCK));
+
+        Map<Long, Integer> totalQuantities = new LinkedHashMap<>(); // 상품 id -> 이번 묶음의 차감 수량 합계
+        List<Long> cartProductIds = new ArrayList<>();
+        List<Order> acceptedOrders = new ArrayList<>();
+        List<BatchResult> results = new ArrayList<>();
+
+        for (OrderDto dto : dtos) {
+            try {
+                Member member = members.get(dto.getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("회원이 존재하지 않습니다.");
+                }
+
+                List<Long> orderCartProductIds = new ArrayList<>();
+                Map<Long, Integer> quantities = collectQuantities(dto, orderCartProductIds);
+                Order order = buildOrder(dto, member, products);
+
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    if (available.get(entry.getKey()) < entry.getValue()) {
+                        throw new IllegalStateException("재고 수량이 부족합니다. 상품 번호: " + entry.getKey());
+                    }
+                }
+                quantities.forEach((productId, quantity) -> {
+                    available.merge(productId, -quantity, Integer::sum);
+                    totalQuantities.merge(productId, quantity, Integer::sum);
+                });
+
+                cartProductIds.addAll(orderCartProductIds);
+                acceptedOrders.add(order);
+                results.add(new BatchResult(order, null));
+
+            } catch (IllegalArgumentException | IllegalStateException err) {
+                results.add(new BatchResult(null, err));
+            }
+        }
+
+        // 상품 행을 잠근 상태에서 배정했으므로 항상 성공해야 합니다.(실패하면 묶음 전체를 취소합니다.)
+        if (!productService.decreaseStocks(totalQuantities)) {
+            throw new IllegalStateException("재고 수량이 부족합니다.");
+        }
+        cartProductService.deleteCartProductsByIds(cartProductIds);
+        orderRepository.saveAll(acceptedOrders);
+        salesRollupService.recordOrders(acceptedOrders);
+
+        productService.productStockChanged(List.copyOf(totalQuantities.keySet()));
+        return results;
+    }
+
+    // 메모리 재고를 사용하는 경우 : 상품 행을 잠그지 않고, 주문마다 메모리에서 재고를 예약합니다.
+    private List<BatchResult> createOrdersInBatchWithInventory(List<OrderDto> dtos, Map<Long, Member> members, Map<Long, Product> products) {
+        Map<Long, Integer> totalQuantities = new LinkedHashMap<>(); // 상품 id -> 이번 묶음에서 예약한 수량 합계
+        List<Long> cartProductIds = new ArrayList<>();
+        List<Order> acceptedOrders = new ArrayList<>();
+        List<BatchResult> results = new ArrayList<>();
+
+        for (OrderDto dto : dtos) {
+            try {
+                Member member = members.get(dto.getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("회원이 존재하지 않습니다.");
+                }
+
+                List<Long> orderCartProductIds = new ArrayList<>();
+                Map<Long, Integer> quantities = collectQuantities(dto, orderCartProductIds);
+                Order order = buildOrder(dto, member, products);
+
+                if (!inventoryService.reserve(quantities)) {
+                    throw new IllegalStateException("재고 수량이 부족합니다.");
+                }
+                quantities.forEach((productId, quantity) -> totalQuantities.merge(productId, quantity, Integer::sum));
+
+                cartProductIds.addAll(orderCartProductIds);
+                acceptedOrders.add(order);
+                results.add(new BatchResult(order, null));
+
+            } catch (IllegalArgumentException | IllegalStateException err) {
+                results.add(new BatchResult(null, err));
+            }
+        }
+
+        inventoryService.releaseOnRollback(totalQuantities); // 묶음 전체가 취소되면 예약한 재고를 모두 되돌려 줍니다.
+        cartProductService.deleteCartProductsByIds(cartProductIds);
+        orderRepository.saveAll(acceptedOrders);
+        salesRollupService.recordOrders(acceptedOrders);
+
+        productService.productStockChanged(List.copyOf(totalQuantities.keySet()));
+        return results;
+    }
+
+    // createOrdersInBatch()의 주문 1건에 대한 처리 결과(성공하면 order, 실패하면 error)
+    @Getter
+    @AllArgsConstructor
+    public static class BatchResult {
+        private final Order order;
+        private final RuntimeException error;
+    }
+
+    // 주문 상품 목록을 상품 id별 주문 수량으로 합산하고, 장바구니에서 주문한 품목의 id를 cartProductIds에 담습니다.
+    private Map<Long, Integer> collectQuantities(OrderDto dto, List<Long> cartProductIds) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>(); // 상품 id -> 주문 수량(같은 상품이 여러 번 있으면 합산)
+        for (OrderItemDto item : dto.getOrderItems()) {
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("구매 수량은 1개 이상이어야 합니다.");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+
+            Long cartProductId = item.getCartProductId();
+            if (cartProductId != null) {
+                cartProductIds.add(cartProductId);
+            } else {
+                System.out.println("상품 상세 보기에서 클릭하셨군요.");
+            }
+        }
+        return quantities;
+    }
+
+    // 주문 객체와 주문상품 객체들을 생성합니다.(저장은 하지 않습니다.)
+    private Order buildOrder(OrderDto dto, Member member, Map<Long, Product> products) {
         Order order = new Order();
         order.setMember(member);
         order.setOrderdate(LocalDate.now());
         order.setStatus(dto.getStatus());
 
-        // 3. 주문상품 생성 및 재고처리
         List<OrderProduct> orderProductList = new ArrayList<>();
         for (OrderItemDto item : dto.getOrderItems()) {
-            Optional<Product> optionalProduct = productService.findProductById(item.getProductId());
-            if (!optionalProduct.isPresent()) {
-                throw new RuntimeException("해당 상품이 존재하지 않습니다.");
-            }
-            Product product = optionalProduct.get();
-
-            if (product.getStock() < item.getQuantity()) {
-                throw new RuntimeException("재고 수량이 부족합니다.");
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("해당 상품이 존재하지 않습니다.");
             }
 
             // 주문상품 객체 생성
@@ -67,71 +266,82 @@ public class OrderService {
             orderProduct.setOrder(order);
             orderProduct.setProduct(product);
             orderProduct.setQuantity(item.getQuantity());
+            orderProduct.setPrice(product.getPrice()); // 나중에 상품 가격이 바뀌어도 매출은 주문 당시의 가격으로 계산합니다.
             orderProductList.add(orderProduct);
-
-            // 재고 차감
-            product.setStock(product.getStock() - item.getQuantity());
-
-            // 장바구니 품목 삭제
-            Long cartProductId = item.getCartProductId();
-            if (cartProductId != null) {
-                cartProductService.deleteCartProductById(cartProductId);
-            } else {
-                System.out.println("상품 상세 보기에서 클릭하셨군요.");
-            }
         }
 
-        // 4. 주문에 주문상품 목록 설정
+        // 주문에 주문상품 목록 설정
         order.setOrderProducts(orderProductList);
-
-        // 5. DB 저장
-        return orderRepository.save(order);
+        return order;
     }
 
     /**
      * 특정 회원의 주문 내역 또는 관리자일 경우 전체 주문 내역을 조회합니다.
+     * 주문 목록 1번, 주문 상품 목록 1번, 모두 2번의 쿼리만 실행합니다.(주문 개수와 관계 없음)
      */
     public List<OrderDetailDto> getOrderListByRole(Long memberId, Role role) {
-        List<Order> orders;
+        OrderSearchDto search = new OrderSearchDto(OrderStatus.PENDING, null, null, null);
+        return convertToOrderDetailDtoList(orderRepository.findOrderRows(restrictByRole(search, memberId, role), null, 0));
+    }
 
-        if (role == Role.ADMIN) { // 관리자일 경우 전체 주문 내역 조회
-            orders = orderRepository.findByStatusOrderByIdDesc(OrderStatus.PENDING);
+    /**
+     * 검색 조건에 맞는 주문 내역을 최신 주문부터 size개씩 조회합니다.(커서 기반 페이징)
+     * lastId : 이전 페이지의 마지막 송장 번호(첫 페이지는 null)
+     */
+    public SliceResponseDto<OrderDetailDto> getOrderSlice(Long memberId, Role role, OrderSearchDto search, Long lastId, int size) {
+        // 다음 페이지가 있는지 알기 위하여 1건을 더 조회합니다.
+        List<Object[]> orderRows = orderRepository.findOrderRows(restrictByRole(search, memberId, role), lastId, size + 1);
 
-        } else { // 일반 사용자일 경우 본인 주문 내역만 조회
-            orders = orderRepository.findByMemberIdAndStatusOrderByIdDesc(memberId, OrderStatus.PENDING);
+        boolean hasNext = orderRows.size() > size;
+        if (hasNext) {
+            orderRows = orderRows.subList(0, size);
         }
 
-        return convertToOrderDetailDtoList(orders);
+        List<OrderDetailDto> content = convertToOrderDetailDtoList(orderRows);
+        String nextCursor = hasNext ? CursorCodec.encode(content.get(content.size() - 1).getOrderId()) : null;
+        return new SliceResponseDto<>(content, size, hasNext, nextCursor);
+    }
+
+    // 일반 사용자는 검색 조건과 관계 없이 본인의 주문만 조회할 수 있습니다.
+    private OrderSearchDto restrictByRole(OrderSearchDto search, Long memberId, Role role) {
+        if (role != Role.ADMIN) {
+            search.setMemberId(memberId);
+        }
+        return search;
     }
 
 
     /**
-     * 엔티티 목록을 DTO 목록으로 변환하는 공통 메서드
+     * 조회된 주문 행 목록을 DTO 목록으로 변환하는 공통 메서드
+     * 엔터티의 지연 로딩(LAZY) 연관 관계(회원, 주문 상품, 상품)를 따라가면 주문마다 추가 쿼리가 발생하므로,
+     * 필요한 컬럼만 미리 조회한 결과를 사용합니다.
      */
-    private List<OrderDetailDto> convertToOrderDetailDtoList(List<Order> orders) {
-        List<OrderDetailDto> responseDtos = new ArrayList<>();
+    private List<OrderDetailDto> convertToOrderDetailDtoList(List<Object[]> orderRows) {
+        // 송장 번호 -> 주문 DTO(조회된 순서 유지)
+        Map<Long, OrderDetailDto> responseDtos = new LinkedHashMap<>();
 
-        for (Order order : orders) {
+        for (Object[] row : orderRows) {
             // 주문의 기초 정보 셋팅
             OrderDetailDto dto = new OrderDetailDto();
-            dto.setOrderId(order.getId());
-            dto.setName(order.getMember().getName()); //
-            dto.setOrderDate(order.getOrderdate());
-            dto.setStatus(order.getStatus().name());
-
-            // `주문 상품` 여러 개에 대한 셋팅
-            List<OrderDetailDto.OrderItem> orderItems = new ArrayList<>();
-            for (OrderProduct op : order.getOrderProducts()) {
-                OrderDetailDto.OrderItem item =
-                        new OrderDetailDto.OrderItem(op.getProduct().getName(), op.getQuantity());
-                orderItems.add(item);
-            }
+            dto.setOrderId((Long) row[0]);
+            dto.setName((String) row[1]);
+            dto.setOrderDate((LocalDate) row[2]);
+            dto.setStatus(((OrderStatus) row[3]).name());
+            dto.setOrderItems(new ArrayList<>());
+            responseDtos.put(dto.getOrderId(), dto);
+        }
 
-            dto.setOrderItems(orderItems);
-            responseDtos.add(dto);
+        if (responseDtos.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        return responseDtos;
+        // `주문 상품` 여러 개에 대한 셋팅
+        for (Object[] row : orderRepository.findOrderItemRows(responseDtos.keySet())) {
+            OrderDetailDto.OrderItem item = new OrderDetailDto.OrderItem((String) row[1], (Integer) row[2]);
+            responseDtos.get((Long) row[0]).getOrderItems().add(item);
+        }
+
+        return new ArrayList<>(responseDtos.values());
     }
 
     // 관리자가 수행하는 주문된 상품에 대한 `완료` 처리 기능
@@ -147,7 +357,14 @@ public class OrderService {
             throw new IllegalStateException("취소된 주문은 상태를 변경할 수 없습니다.");
         }
 
+        // 취소로 변경하는 경우에는 재고도 함께 복원해야 합니다.
+        if (newStatus == OrderStatus.CANCELED) {
+            cancelLockedOrders(orderRepository.findCancelableForUpdate(List.of(orderId)));
+            return "송장 번호 " + orderId + "의 주문 상태가 " + newStatus + "(으)로 변경되었습니다.";
+        }
+
         // 3. 상태 변경
+        // 판매 합계는 취소되지 않은 주문을 모두 합산하므로, 취소 이외의 상태 변경은 합계에 영향이 없습니다.
         order.setStatus(newStatus);
 
         // 4. DB에 반영 (Dirty Checking)
@@ -159,33 +376,132 @@ public class OrderService {
         return "송장 번호 " + orderId + "의 주문 상태가 " + newStatus + "(으)로 변경되었습니다.";
     }
 
-    // 주문된 상품에 대한 `취소` 기능
+    // 한번에 변경할 수 있는 주문의 최대 개수(송장 번호 목록 또는 범위)
+    public static final int MAX_BULK_ORDERS = 10000;
+
+    /*
+        관리자가 여러 주문의 상태를 한번에 변경합니다.
+        주문 엔터티를 읽어 오지 않고 update 문장 1개로 변경한 다음, 결과 확인을 위한 조회 1번만 실행합니다.(주문 개수와 관계 없음)
+        취소된 주문은 변경하지 않습니다.(취소는 재고 복원이 필요하므로 주문 취소 기능을 사용합니다.)
+        반환 값 : 송장 번호 -> 처리 결과(송장 번호 순)
+    */
+    @Transactional
+    public Map<Long, OrderStatusChangeResult> updateOrderStatuses(Collection<Long> orderIds, OrderStatus newStatus) {
+        Set<Long> ids = new TreeSet<>(orderIds);
+        if (ids.isEmpty() || ids.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("송장 번호는 1개 이상 " + MAX_BULK_ORDERS + "개 이하로 지정해야 합니다.");
+        }
+        checkBulkTargetStatus(newStatus);
+
+        orderRepository.updateOrderStatuses(ids, newStatus);
+
+        Map<Long, OrderStatusChangeResult> results = toChangeResults(orderRepository.findStatusRows(ids));
+        for (Long id : ids) {
+            results.putIfAbsent(id, OrderStatusChangeResult.NOT_FOUND);
+        }
+        return new TreeMap<>(results);
+    }
+
+    /*
+        송장 번호 범위(양 끝 포함)에 있는 주문들의 상태를 한번에 변경합니다.
+        반환 값 : 범위 안에 존재하는 주문의 송장 번호 -> 처리 결과(없는 번호는 포함하지 않습니다.)
+    */
+    @Transactional
+    public Map<Long, OrderStatusChangeResult> updateOrderStatusesInRange(Long fromId, Long toId, OrderStatus newStatus) {
+        if (fromId == null || toId == null || fromId > toId || toId - fromId >= MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("송장 번호 범위는 " + MAX_BULK_ORDERS + "개 이하로 지정해야 합니다.");
+        }
+        checkBulkTargetStatus(newStatus);
+
+        orderRepository.updateOrderStatusesInRange(fromId, toId, newStatus);
+
+        return toChangeResults(orderRepository.findStatusRowsInRange(fromId, toId));
+    }
+
+    private void checkBulkTargetStatus(OrderStatus newStatus) {
+        if (newStatus == null || newStatus == OrderStatus.CANCELED) {
+            throw new IllegalArgumentException("일괄 변경할 주문 상태가 올바르지 않습니다.(취소는 주문 취소 기능을 사용하세요.)");
+        }
+    }
+
+    // update 이후에 조회한 주문 상태로 처리 결과를 판단합니다.(취소된 주문은 update 대상에서 제외되었습니다.)
+    private Map<Long, OrderStatusChangeResult> toChangeResults(List<Object[]> statusRows) {
+        Map<Long, OrderStatusChangeResult> results = new LinkedHashMap<>();
+        for (Object[] row : statusRows) {
+            results.put((Long) row[0], row[1] == OrderStatus.CANCELED
+                    ? OrderStatusChangeResult.SKIPPED_CANCELED
+                    : OrderStatusChangeResult.UPDATED);
+        }
+        return results;
+    }
+
+    /*
+        주문된 상품에 대한 `취소` 기능
+        주문을 삭제하지 않고 취소(CANCELED) 상태로 변경하므로, 판매 내역이 남습니다.
+    */
     @Transactional
     public String cancelOrder(Long orderId) {
         // 1. 주문 존재 여부 확인
-        Optional<Order> orderOptional = orderRepository.findById(orderId);
-        if (orderOptional.isEmpty()) {
+        if (!orderRepository.existsById(orderId)) {
             throw new IllegalArgumentException("해당 주문이 존재하지 않습니다. ID: " + orderId);
         }
 
-        Order order = orderOptional.get();
+        // 2. 재고 복원 및 취소 상태로 변경
+        if (cancelLockedOrders(orderRepository.findCancelableForUpdate(List.of(orderId))).isEmpty()) {
+            throw new IllegalStateException("이미 취소된 주문입니다. ID: " + orderId);
+        }
 
-        // 2. `주문 상품`을 반복하면서 재고 수량을 더해 줍니다.(수량 복원)
-        for (OrderProduct op : order.getOrderProducts()) {
-            Product product = op.getProduct();
-            int quantity = op.getQuantity();
+        // 3. 사용자에게 반환할 메시지 생성
+        return "주문이 취소되었습니다.";
+    }
+
+    /*
+        여러 주문을 한번에 취소합니다.(이미 취소된 주문과 없는 주문은 건너뜁니다.)
+        반환 값 : 이번에 취소된 송장 번호 목록
+    */
+    @Transactional
+    public List<Long> cancelOrders(Collection<Long> orderIds) {
+        Set<Long> ids = new TreeSet<>(orderIds);
+        if (ids.isEmpty() || ids.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("송장 번호는 1개 이상 " + MAX_BULK_ORDERS + "개 이하로 지정해야 합니다.");
+        }
+        return cancelLockedOrders(orderRepository.findCancelableForUpdate(ids));
+    }
+
+    // 특정 회원의 주문 대기(PENDING) 중인 주문을 모두 취소합니다.
+    @Transactional
+    public List<Long> cancelPendingOrdersOfMember(Long memberId) {
+        return cancelLockedOrders(orderRepository.findByMemberIdAndStatusForUpdate(memberId, OrderStatus.PENDING));
+    }
+
+    /*
+        잠근 주문들의 재고를 복원하고 취소 상태로 변경합니다.
+        주문/주문 상품의 개수와 관계 없이 수량 합산 1번, 재고 update 1번, 판매 합계 갱신 1번, 주문 상태 update 1번으로 처리합니다.
+        메모리 재고를 사용하면 커밋 이후에 메모리 재고로 되돌려 주고, 데이터 베이스에는 나중에 모아서 반영합니다.
+    */
+    private List<Long> cancelLockedOrders(List<Order> orders) {
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
 
-            // 기존 재고 + 취소된 수량
-            product.setStock(product.getStock() + quantity);
+        List<Object[]> salesRows = orderRepository.sumSalesByOrderIds(orderIds); // [주문 날짜, 상품 id, 수량 합계, 매출 합계]
+        Map<Long, Integer> quantities = new LinkedHashMap<>(); // 상품 id -> 복원할 수량
+        for (Object[] row : salesRows) {
+            quantities.merge((Long) row[1], ((Number) row[2]).intValue(), Integer::sum);
+        }
 
-            // 재고 수량 반영
-            productService.save(product);
+        if (inventoryService.isEnabled()) {
+            inventoryService.releaseAfterCommit(quantities);
+            productService.productStockChanged(List.copyOf(quantities.keySet()));
+        } else if (!productService.increaseStocks(quantities)) {
+            // 그 사이에 관리자가 재고를 늘린 경우 등, 복원하면 최대 재고를 넘는 상품이 있으면 취소 전체를 되돌립니다.
+            throw new IllegalStateException("재고를 복원하면 최대 재고(" + Product.MAX_STOCK + "개)를 넘는 상품이 있어 주문을 취소할 수 없습니다.");
         }
 
-        // 3. 주문 삭제
-        orderRepository.deleteById(orderId);
+        salesRollupService.cancelSales(salesRows);
+        orderRepository.cancelOrders(orderIds);
 
-        // 4. 사용자에게 반환할 메시지 생성
-        return "주문이 취소되었습니다.";
+        return orderIds;
     }
 }
@@ -0,0 +1,53 @@
+package com.coffee.service;
+
+import com.coffee.common.TtlLruCache;
+import com.coffee.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    상품 상세 보기(/product/detail/{id})와 상품 수정 페이지(/product/update/{id})에서 사용하는 상품 캐시입니다.
+    상품 id -> Product 엔터티 정보를 최대 max-size 개까지 저장하며, 넘치면 가장 오래 사용되지 않은 상품부터 제거합니다.
+    상품 수정/삭제, 주문에 의한 재고 변경 시에는 ProductService가 해당 상품을 캐시에서 제거합니다.
+    ttl-seconds는 다른 경로(예: 데이터 베이스 직접 수정)로 재고가 바뀌었을 때 허용하는 최대 지연 시간입니다.
+*/
+@Component
+public class ProductDetailCache {
+    private final TtlLruCache<Long, Product> cache;
+
+    // 캐시에서 상품을 제거할 때마다 1씩 증가합니다.(ProductListCache의 generation과 같은 용도)
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductDetailCache(@Value("${product.cache.detail.max-size:5000}") int maxSize,
+                              @Value("${product.cache.detail.ttl-seconds:30}") long ttlSeconds) {
+        this.cache = new TtlLruCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public Product get(Long productId) {
+        return cache.get(productId);
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    // 조회를 시작한 이후에 다른 상품이 제거(evict)되었다면, 조회한 값이 이미 오래된 것일 수 있으므로 저장하지 않습니다.
+    public void put(Product product, long startGeneration) {
+        if (startGeneration == generation.get()) {
+            cache.put(product.getId(), product);
+        }
+    }
+
+    public void evict(Long productId) {
+        generation.incrementAndGet();
+        cache.invalidate(productId);
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,93 @@
+package com.coffee.service;
+
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+    상품 전체 목록을 파일(NDJSON 또는 CSV)로 내보내는 서비스입니다.
+    findAll()은 모든 상품을 한번에 메모리에 올리므로, 상품이 아주 많으면 메모리가 부족해집니다.
+    여기서는 데이터 베이스 커서(Stream)로 1건씩 읽어서 바로 응답 스트림에 쓰고,
+    다 쓴 엔터티는 영속성 컨텍스트에서 분리(detach)하여 상품 개수와 관계없이 메모리 사용량을 일정하게 유지합니다.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+    private static final String CSV_HEADER = "product_id,name,price,category,stock,image,inputdate,description\n";
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /*
+        format : "csv"이면 CSV, 그 외에는 NDJSON(한 줄에 json 1개)
+        out : 응답 출력 스트림
+        반환 값 : 내보낸 상품 개수
+    */
+    @Transactional(readOnly = true) // Stream으로 조회하려면 읽는 동안 트랜잭션(데이터 베이스 연결)이 유지되어야 합니다.
+    public long export(String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        long count = 0;
+
+        if (csv) {
+            buffered.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (Stream<Product> stream = productRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Product> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+
+                if (csv) {
+                    buffered.write(toCsvLine(product).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    buffered.write(objectMapper.writeValueAsBytes(product));
+                    buffered.write('\n');
+                }
+
+                entityManager.detach(product); // 다 쓴 엔터티는 영속성 컨텍스트에서 제거합니다.
+                count++;
+            }
+        }
+
+        buffered.flush();
+        return count;
+    }
+
+    private String toCsvLine(Product product) {
+        return product.getId() + ","
+                + csvField(product.getName()) + ","
+                + product.getPrice() + ","
+                + (product.getCategory() == null ? "" : product.getCategory().name()) + ","
+                + product.getStock() + ","
+                + csvField(product.getImage()) + ","
+                + (product.getInputdate() == null ? "" : product.getInputdate().toString()) + ","
+                + csvField(product.getDescription()) + "\n";
+    }
+
+    // 쉼표, 큰 따옴표, 줄 바꿈이 들어 있으면 큰 따옴표로 감싸고, 내부의 큰 따옴표는 2개로 바꿉니다.(RFC 4180)
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
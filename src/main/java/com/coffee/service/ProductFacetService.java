@@ -0,0 +1,243 @@
+package com.coffee.service;
+
+import com.coffee.constant.Category;
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/*
+    상품 검색 필터 바에 보여줄 '카테고리별/기간별 상품 개수(facet)'를 계산하는 서비스입니다.
+    요청할 때마다 group by 쿼리를 실행하지 않도록, 메모리에 다음 정보를 유지합니다.
+        products : 상품 id -> (카테고리, 입고 일자)
+        histogram : 입고 일자 -> 카테고리별 상품 개수
+    키워드가 없으면 histogram으로, 키워드가 있으면 검색 색인의 결과(상품 id 목록)를 1번 훑어서 계산합니다.
+    상품이 등록/수정/삭제되면 ProductService가 productChanged()/productDeleted()를 호출하여 갱신합니다.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+    // ProductSpecification.hasDateRange()의 기간 검색 콤보 박스 값과 동일합니다.
+    private static final List<String> DATE_TYPES = List.of("all", "1d", "1w", "1m", "6m");
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+
+    private final Map<Long, FacetEntry> products = new HashMap<>();
+    private final TreeMap<LocalDate, long[]> histogram = new TreeMap<>();
+    private final long[] totalByCategory = new long[Category.values().length];
+    private volatile boolean ready = false;
+
+    // 애플리케이션이 구동되면, 상품의 id/카테고리/입고 일자만 조회하여 집계 정보를 만듭니다.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        products.clear();
+        histogram.clear();
+        Arrays.fill(totalByCategory, 0);
+
+        List<Object[]> rows = productRepository.findFacetRows();
+        for (Object[] row : rows) {
+            addInternal((Long) row[0], new FacetEntry((Category) row[1], (LocalDate) row[2]));
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /*
+        키워드 검색 결과(상품 id 목록)에 기간 검색/카테고리 조건을 적용하고, id 역순(최신 상품부터)으로 정렬하여 반환합니다.
+        ProductSpecification.hasDateRange(), hasCategory()와 같은 조건입니다.(ProductService의 키워드 검색 목록 조회에서 사용)
+    */
+    public List<Long> filterIds(Collection<Long> ids, String searchDateType, Category category) {
+        LocalDate firstDate = firstIncludedDate(ProductSpecification.normalizeDateType(searchDateType), LocalDateTime.now());
+        boolean allCategories = category == null || category == Category.ALL;
+
+        List<Long> result = new ArrayList<>();
+        synchronized (this) {
+            for (Long productId : ids) {
+                FacetEntry entry = products.get(productId);
+                if (entry == null
+                        || (!allCategories && entry.category != category)
+                        || (firstDate != null && (entry.inputdate == null || entry.inputdate.isBefore(firstDate)))) {
+                    continue;
+                }
+                result.add(productId);
+            }
+        }
+
+        result.sort(Comparator.reverseOrder());
+        return result;
+    }
+
+    public synchronized void productChanged(Product product) {
+        removeInternal(product.getId());
+        addInternal(product.getId(), new FacetEntry(product.getCategory(), product.getInputdate()));
+    }
+
+    public synchronized void productDeleted(Long productId) {
+        removeInternal(productId);
+    }
+
+    /*
+        기간 검색 값별, 카테고리별 상품 개수를 반환합니다.
+        반환 예시) {"all": {"ALL": 120, "BREAD": 40, ...}, "1d": {"ALL": 3, ...}, ...}
+        카테고리 "ALL"은 카테고리 필터를 적용하지 않은 전체 개수입니다.
+    */
+    public Map<String, Map<String, Long>> getFacets(String searchMode, String searchKeyword) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // 키워드가 있으면 해당 키워드의 상품 id 목록만 대상으로 합니다.
+        // 검색 색인이 준비되기 전에는 데이터 베이스에서 like 검색으로 상품 id 목록을 조회합니다.
+        Set<Long> matchedIds = null;
+        if (searchKeyword != null && !searchKeyword.isEmpty()) {
+            if (!"name".equals(searchMode) && !"description".equals(searchMode)) {
+                throw new IllegalArgumentException("검색 모드는 name 또는 description이어야 합니다.");
+            }
+            matchedIds = productSearchIndex.isReady()
+                    ? productSearchIndex.search(searchMode, searchKeyword)
+                    : new HashSet<>("name".equals(searchMode)
+                            ? productRepository.findIdsByNameLike(searchKeyword)
+                            : productRepository.findIdsByDescriptionLike(searchKeyword));
+        }
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+
+        synchronized (this) {
+            if (matchedIds == null) { // 키워드 조건 없음 : 입고 일자별 집계 정보를 사용
+                for (String dateType : DATE_TYPES) {
+                    LocalDate firstDate = firstIncludedDate(dateType, now);
+                    long[] counts = new long[totalByCategory.length];
+
+                    if (firstDate == null) {
+                        System.arraycopy(totalByCategory, 0, counts, 0, counts.length);
+                    } else {
+                        for (long[] dayCounts : histogram.tailMap(firstDate, true).values()) {
+                            for (int i = 0; i < counts.length; i++) {
+                                counts[i] += dayCounts[i];
+                            }
+                        }
+                    }
+                    facets.put(dateType, toCategoryMap(counts));
+                }
+
+            } else { // 키워드 조건 있음 : 검색 결과를 1번 훑으면서 모든 기간의 개수를 같이 셉니다.
+                LocalDate[] firstDates = new LocalDate[DATE_TYPES.size()];
+                long[][] counts = new long[DATE_TYPES.size()][totalByCategory.length];
+                for (int d = 0; d < firstDates.length; d++) {
+                    firstDates[d] = firstIncludedDate(DATE_TYPES.get(d), now);
+                }
+
+                for (Long productId : matchedIds) {
+                    FacetEntry entry = products.get(productId);
+                    if (entry == null) {
+                        continue;
+                    }
+                    for (int d = 0; d < firstDates.length; d++) {
+                        if (firstDates[d] == null || (entry.inputdate != null && !entry.inputdate.isBefore(firstDates[d]))) {
+                            counts[d][entry.categoryIndex()]++;
+                        }
+                    }
+                }
+
+                for (int d = 0; d < firstDates.length; d++) {
+                    facets.put(DATE_TYPES.get(d), toCategoryMap(counts[d]));
+                }
+            }
+        }
+
+        return facets;
+    }
+
+    /*
+        해당 기간 검색에 포함되는 가장 이른 입고 일자를 구합니다.(전체 기간이면 null)
+        ProductSpecification.hasDateRange()는 입고 일자(날짜)와 검색 시작 시각(날짜+시간)을 비교하므로,
+        입고 일자의 0시 0분이 검색 시작 시각 이후인 날짜부터 포함됩니다.
+    */
+    private LocalDate firstIncludedDate(String dateType, LocalDateTime now) {
+        LocalDateTime startDate;
+        switch (dateType) {
+            case "1d":
+                startDate = now.minus(1, ChronoUnit.DAYS);
+                break;
+            case "1w":
+                startDate = now.minus(1, ChronoUnit.WEEKS);
+                break;
+            case "1m":
+                startDate = now.minus(1, ChronoUnit.MONTHS);
+                break;
+            case "6m":
+                startDate = now.minus(6, ChronoUnit.MONTHS);
+                break;
+            default:
+                return null;
+        }
+
+        LocalDate date = startDate.toLocalDate();
+        return startDate.toLocalTime().equals(LocalTime.MIDNIGHT) ? date : date.plusDays(1);
+    }
+
+    private Map<String, Long> toCategoryMap(long[] counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        for (Category category : Category.values()) {
+            // 카테고리가 ALL인 상품도 있으므로, "ALL" 항목은 모든 카테고리의 합계로 보여 줍니다.
+            result.put(category.name(), category == Category.ALL ? total : counts[category.ordinal()]);
+        }
+        return result;
+    }
+
+    private void addInternal(Long productId, FacetEntry entry) {
+        products.put(productId, entry);
+        totalByCategory[entry.categoryIndex()]++;
+        if (entry.inputdate != null) {
+            histogram.computeIfAbsent(entry.inputdate, key -> new long[totalByCategory.length])[entry.categoryIndex()]++;
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        FacetEntry entry = products.remove(productId);
+        if (entry == null) {
+            return;
+        }
+
+        totalByCategory[entry.categoryIndex()]--;
+        if (entry.inputdate != null) {
+            long[] dayCounts = histogram.get(entry.inputdate);
+            if (dayCounts != null) {
+                dayCounts[entry.categoryIndex()]--;
+                if (Arrays.stream(dayCounts).allMatch(count -> count == 0)) {
+                    histogram.remove(entry.inputdate);
+                }
+            }
+        }
+    }
+
+    // facet 계산에 필요한 상품 정보(카테고리, 입고 일자)
+    private static class FacetEntry {
+        private final Category category;
+        private final LocalDate inputdate;
+
+        private FacetEntry(Category category, LocalDate inputdate) {
+            this.category = category == null ? Category.ALL : category;
+            this.inputdate = inputdate;
+        }
+
+        private int categoryIndex() {
+            return category.ordinal();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.coffee.service;
+
+import com.coffee.constant.ImageSize;
+import com.coffee.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+    어떤 상품도 사용하지 않는 이미지 파일을 주기적으로 삭제합니다.
+    상품 삭제/이미지 변경/업로드 실패 시에는 요청 스레드에서 파일을 지우지 않고, 이 작업이 나중에 한꺼번에 정리합니다.
+        1. products 테이블의 image 컬럼을 id 순서대로 batch-size건씩 읽어서(keyset 방식) 사용 중인 이미지 목록을 만듭니다.
+        2. 이미지 폴더의 파일을 1개씩 읽으면서(DirectoryStream) 사용 중인 이미지와 그 크기별 이미지가 아니면 삭제합니다.
+        3. 업로드 중이거나 방금 저장된 파일을 지우지 않도록, 수정된 지 grace-minutes분이 지나지 않은 파일은 남겨 둡니다.
+           임시 파일(.part)도 같은 기준으로 정리합니다.(업로드 실패로 남은 파일)
+        4. ProductImageStorage가 만든 파일(SHA-256 해시 이름, 그 크기별 이미지, upload_/variant_ 임시 파일)만 대상으로 하며,
+           그 외의 파일(예전 방식의 product_날짜.jpg, 직접 복사한 파일 등)은 절대 삭제하지 않습니다.
+    기본값은 꺼져 있습니다.(product.image.gc.enabled=false)
+    처음 켤 때는 dry-run=true 상태로 실행하여 /product/images/gc 보고서의 삭제 대상(candidates)을 확인한 후에 실제 삭제로 바꿉니다.
+*/
+@Service
+public class ProductImageGarbageCollector {
+    // 64자리 16진수(SHA-256) + 크기별 이미지 접미사(선택) + 확장자
+    private static final Pattern OWN_IMAGE_NAME = Pattern.compile("[0-9a-f]{64}(_(thumb|card|detail))?\\.[a-z0-9]+");
+    private static final int MAX_REPORTED_CANDIDATES = 100;
+
+    private final ProductRepository productRepository;
+    private final ProductImageStorage productImageStorage;
+    private final int batchSize;
+    private final long graceMillis;
+    private final boolean enabled;
+    private final boolean dryRun;
+
+    // 가장 최근 정리 작업의 결과
+    private volatile Map<String, Object> lastReport = Collections.emptyMap();
+
+    public ProductImageGarbageCollector(ProductRepository productRepository,
+                                        ProductImageStorage productImageStorage,
+                                        @Value("${product.image.gc.batch-size:1000}") int batchSize,
+                                        @Value("${product.image.gc.grace-minutes:60}") long graceMinutes,
+                                        @Value("${product.image.gc.enabled:false}") boolean enabled,
+                                        @Value("${product.image.gc.dry-run:true}") boolean dryRun) {
+        this.productRepository = productRepository;
+        this.productImageStorage = productImageStorage;
+        this.batchSize = batchSize;
+        this.graceMillis = graceMinutes * 60 * 1000;
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+    }
+
+    // 이전 작업이 끝난 후 interval-ms 만큼 기다렸다가 다시 실행합니다.(작업이 겹쳐서 실행되지 않습니다.)
+    @Scheduled(initialDelayString = "${product.image.gc.initial-delay-ms:600000}",
+            fixedDelayString = "${product.image.gc.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Path imageDirectory = productImageStorage.getImageDirectory();
+        if (!Files.isDirectory(imageDirectory)) {
+            return;
+        }
+
+        // 목록을 만드는 동안 업로드된 파일은 grace 기간과 참조 개수로 보호됩니다.
+        Set<String> referencedKeys = loadReferencedKeys();
+
+        long threshold = startTime - graceMillis;
+        int scannedFiles = 0, deletedFiles = 0, recentFiles = 0, foreignFiles = 0;
+        long reclaimedBytes = 0;
+        List<String> candidates = new ArrayList<>(); // dry-run 일 때 삭제 대상 파일(최대 MAX_REPORTED_CANDIDATES개)
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageDirectory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                try {
+                    if (!Files.isRegularFile(file)) {
+                        continue;
+                    }
+                    scannedFiles++;
+
+                    boolean temporary = isOwnTemporary(fileName);
+                    if (!temporary && !isOwnImage(fileName)) {
+                        foreignFiles++;
+                        continue;
+                    }
+                    if (!temporary && referencedKeys.contains(keyOf(fileName))) {
+                        continue;
+                    }
+                    if (Files.getLastModifiedTime(file).toMillis() > threshold) {
+                        recentFiles++;
+                        continue;
+                    }
+
+                    if (dryRun) {
+                        if (!temporary && productImageStorage.getReferenceCount(originalFileNameOf(fileName)) > 0) {
+                            continue;
+                        }
+                        deletedFiles++;
+                        reclaimedBytes += Files.size(file);
+                        if (candidates.size() < MAX_REPORTED_CANDIDATES) {
+                            candidates.add(fileName);
+                        }
+                        continue;
+                    }
+
+                    long deleted = temporary
+                            ? deleteTemporary(file)
+                            : productImageStorage.deleteIfUnreferenced(file, originalFileNameOf(fileName));
+                    if (deleted >= 0) {
+                        deletedFiles++;
+                        reclaimedBytes += deleted;
+                    }
+                } catch (NoSuchFileException err) {
+                    // 목록을 읽는 사이에 이미 삭제된 파일
+                } catch (IOException err) {
+                    System.err.println("이미지 파일 정리 실패 : " + fileName + ", " + err.getMessage());
+                }
+            }
+        } catch (IOException err) {
+            System.err.println("이미지 폴더를 읽을 수 없습니다 : " + err.getMessage());
+            return;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("dryRun", dryRun);
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("durationMs", System.currentTimeMillis() - startTime);
+        report.put("referencedImages", referencedKeys.size());
+        report.put("scannedFiles", scannedFiles);
+        report.put("skippedRecentFiles", recentFiles);
+        report.put("skippedForeignFiles", foreignFiles);
+        if (dryRun) {
+            report.put("candidateFiles", deletedFiles);
+            report.put("candidateBytes", reclaimedBytes);
+            report.put("candidates", candidates);
+        } else {
+            report.put("deletedFiles", deletedFiles);
+            report.put("reclaimedBytes", reclaimedBytes);
+        }
+        lastReport = report;
+    }
+
+    public Map<String, Object> getLastReport() {
+        if (!enabled) {
+            return Map.of("enabled", false);
+        }
+        return lastReport;
+    }
+
+    // ProductImageStorage가 저장한 이미지(해시 이름) 또는 ImageVariantService가 만든 크기별 이미지인지 확인합니다.
+    static boolean isOwnImage(String fileName) {
+        return OWN_IMAGE_NAME.matcher(fileName).matches();
+    }
+
+    // ProductImageStorage와 ImageVariantService가 만든 임시 파일인지 확인합니다.
+    static boolean isOwnTemporary(String fileName) {
+        return fileName.endsWith(ProductImageStorage.TEMP_SUFFIX)
+                && (fileName.startsWith("upload_") || fileName.startsWith("variant_"));
+    }
+
+    // 상품이 사용 중인 이미지의 키(확장자를 뺀 이름) 목록
+    private Set<String> loadReferencedKeys() {
+        Set<String> keys = new HashSet<>();
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = productRepository.findImagesAfter(lastId, PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                if (row[1] != null) {
+                    keys.add(keyOf((String) row[1]));
+                }
+            }
+            if (rows.size() < batchSize) {
+                return keys;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private long deleteTemporary(Path file) throws IOException {
+        long size = Files.size(file);
+        return Files.deleteIfExists(file) ? size : 0;
+    }
+
+    /*
+        원본 이미지와 그 크기별 이미지, 다른 형식(.webp 등)의 이미지가 같은 값을 갖도록 만든 키입니다.
+        예시) abc.jpg, abc_thumb.jpg, abc.webp -> abc
+    */
+    static String keyOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+        for (ImageSize size : ImageSize.values()) {
+            String suffix = "_" + size.getCode();
+            if (baseName.endsWith(suffix)) {
+                return baseName.substring(0, baseName.length() - suffix.length());
+            }
+        }
+        return baseName;
+    }
+
+    // 크기별 이미지이면 원본 이미지 파일 이름(크기별 이미지는 원본과 확장자가 같습니다.)
+    private static String originalFileNameOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? keyOf(fileName) : keyOf(fileName) + fileName.substring(dot);
+    }
+}
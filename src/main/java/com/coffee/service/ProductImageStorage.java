@@ -0,0 +1,292 @@
+package com.coffee.service;
+
+import com.coffee.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/*
+    상품 이미지 파일을 productImageLocation 폴더에 저장하고 삭제해주는 클래스입니다.
+    이미지는 입력 스트림에서 조금씩 읽어서 NIO 채널로 바로 파일에 쓰므로, 이미지 전체를 메모리에 올리지 않습니다.
+        1. 앞부분 12바이트로 실제 이미지 형식(jpg, png, gif, webp)을 확인합니다.(확장자나 Content-Type은 믿지 않습니다.)
+        2. 임시 파일(.part)에 저장하면서 최대 크기(product.image.max-bytes)를 넘으면 중단합니다.
+        3. 저장이 끝나면 최종 파일 이름으로 바꿉니다.(중간에 실패해도 반쪽짜리 이미지가 보이지 않습니다.)
+
+    파일 이름은 저장하면서 함께 계산한 내용의 SHA-256 해시 값입니다.(예시 : 3f5a...e9.jpg)
+        - 같은 이미지를 여러 번 올려도 파일은 1개만 저장됩니다.
+        - 이름이 같으면 내용도 같으므로, 브라우저가 이미지를 영구히 캐시해도 됩니다.
+        - 여러 상품이 같은 파일을 사용할 수 있으므로, 파일별 참조 개수를 관리합니다.
+        - 참조 개수가 0이 된 파일은 요청 스레드에서 삭제하지 않고, ProductImageGarbageCollector가 나중에 삭제합니다.
+*/
+@Component
+public class ProductImageStorage {
+    static final String TEMP_SUFFIX = ".part";
+    private static final int SNIFF_BYTES = 12;
+
+    private final ProductRepository productRepository;
+    private final Path imageDirectory;
+    private final long maxBytes;
+
+    // 이미지 파일 이름 -> 이 파일을 사용하는 상품 개수
+    // 파일 이동/삭제와 개수 변경이 하나의 동작이 되도록, 항상 synchronized 메소드 안에서만 사용합니다.
+    private final Map<String, Integer> references = new HashMap<>();
+
+    public ProductImageStorage(ProductRepository productRepository,
+                               @Value("${productImageLocation}") String productImageLocation,
+                               @Value("${product.image.max-bytes:10485760}") long maxBytes) {
+        this.productRepository = productRepository;
+        this.imageDirectory = Paths.get(productImageLocation);
+        this.maxBytes = maxBytes;
+    }
+
+    // 애플리케이션이 구동되면, 데이터 베이스의 상품 이미지 정보로 파일별 참조 개수를 다시 계산합니다.
+    // 새로 만든 개수로 기존 개수를 한번에 교체합니다.(기존 개수에 더하면 이미 저장된 상품의 이미지가 두 번 세어집니다.)
+    // 계산하는 동안 업로드되어 아직 상품에 저장되지 않은 이미지는 개수에서 빠질 수 있지만,
+    // 가비지 컬렉터는 데이터 베이스의 상품 이미지 목록과 grace 기간도 함께 확인하므로 삭제되지 않습니다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildReferences() {
+        List<Object[]> rows = productRepository.findImageReferenceCounts();
+
+        Map<String, Integer> rebuilt = new HashMap<>();
+        for (Object[] row : rows) {
+            rebuilt.merge((String) row[0], ((Long) row[1]).intValue(), Integer::sum);
+        }
+
+        synchronized (this) {
+            references.clear();
+            references.putAll(rebuilt);
+        }
+    }
+
+    public Path getImageDirectory() {
+        return imageDirectory;
+    }
+
+    // multipart로 업로드된 이미지 파일을 저장하고, 저장된 파일 이름을 반환합니다.
+    // 반환된 파일의 참조 개수는 이미 1 증가되어 있으므로, 상품 저장에 실패하면 release()를 호출해야 합니다.
+    public String store(MultipartFile imageFile) {
+        if (imageFile.getSize() > maxBytes) {
+            throw new IllegalArgumentException("이미지 파일은 최대 " + (maxBytes / 1024 / 1024) + "MB까지 업로드할 수 있습니다.");
+        }
+
+        try (InputStream in = imageFile.getInputStream()) {
+            return store(in);
+        } catch (IOException err) {
+            throw new IllegalStateException("이미지 파일 저장 중 오류가 발생했습니다.", err);
+        }
+    }
+
+    // JavaScript FileReader API로 만들어진 "data:image/...;base64,...." 문자열을 이미지 파일로 저장합니다.
+    // 인코딩된 문자열을 byte[]로 복사하지 않고, 문자열에서 직접 읽으면서 디코딩하여 바로 파일에 씁니다.
+    public String storeBase64(String dataUrl) {
+        int comma = dataUrl.indexOf(',');
+
+        try (InputStream in = Base64.getDecoder().wrap(new AsciiCharSequenceInputStream(dataUrl, comma + 1))) {
+            return store(in);
+        } catch (IOException err) {
+            throw new IllegalStateException("이미지 파일 저장 중 오류가 발생했습니다.", err);
+        }
+    }
+
+    // 문자열의 각 문자를 1바이트로 읽어 주는 입력 스트림입니다.(base64 문자는 모두 ASCII 입니다.)
+    // ASCII가 아닌 문자는 '?'로 바꾸므로, base64 디코더가 잘못된 문자로 판단하여 오류를 발생시킵니다.
+    private static final class AsciiCharSequenceInputStream extends InputStream {
+        private final CharSequence source;
+        private int position;
+
+        AsciiCharSequenceInputStream(CharSequence source, int start) {
+            this.source = source;
+            this.position = start;
+        }
+
+        @Override
+        public int read() {
+            if (position >= source.length()) {
+                return -1;
+            }
+            return toAscii(source.charAt(position++));
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int remaining = source.length() - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = Math.min(length, remaining);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) toAscii(source.charAt(position++));
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return Math.max(0, source.length() - position);
+        }
+
+        private static int toAscii(char c) {
+            return c < 0x80 ? c : '?';
+        }
+    }
+
+    private String store(InputStream rawInput) throws IOException {
+        // 파일에 쓰는 동안 읽은 바이트로 해시 값을 함께 계산합니다.(파일을 다시 읽지 않습니다.)
+        MessageDigest digest = newDigest();
+        InputStream in = new DigestInputStream(rawInput, digest);
+
+        // 1. 이미지 형식 확인
+        byte[] header = in.readNBytes(SNIFF_BYTES);
+        String extension = sniffExtension(header);
+        if (extension == null) {
+            throw new IllegalArgumentException("jpg, png, gif, webp 형식의 이미지만 업로드할 수 있습니다.");
+        }
+
+        // 2. 임시 파일에 저장
+        Files.createDirectories(imageDirectory);
+        Path tempFile = Files.createTempFile(imageDirectory, "upload_", TEMP_SUFFIX);
+        try {
+            long written;
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(in)) {
+                out.write(ByteBuffer.wrap(header));
+                written = header.length;
+
+                // transferFrom()은 원본 채널이 끝나면 0을 반환합니다.
+                // 최대 크기를 넘었는지 알 수 있도록 1바이트를 더 읽어 봅니다.
+                long transferred;
+                while (written <= maxBytes
+                        && (transferred = out.transferFrom(source, written, maxBytes + 1 - written)) > 0) {
+                    written += transferred;
+                }
+            }
+
+            if (written > maxBytes) {
+                throw new IllegalArgumentException("이미지 파일은 최대 " + (maxBytes / 1024 / 1024) + "MB까지 업로드할 수 있습니다.");
+            }
+
+            // 3. 최종 파일 이름으로 변경
+            String imageFileName = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            commit(tempFile, imageFileName);
+            return imageFileName;
+
+        } finally {
+            Files.deleteIfExists(tempFile); // 정상적으로 이동했으면 이미 없습니다.
+        }
+    }
+
+    // 같은 내용의 파일이 이미 있으면 임시 파일은 버리고(finally에서 삭제) 기존 파일을 함께 사용합니다.
+    private synchronized void commit(Path tempFile, String imageFileName) throws IOException {
+        Path target = imageDirectory.resolve(imageFileName);
+        if (!Files.exists(target)) {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        references.merge(imageFileName, 1, Integer::sum);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err); // 모든 JVM은 SHA-256을 지원해야 합니다.
+        }
+    }
+
+    // 파일 앞부분의 매직 넘버(magic number)로 이미지 형식을 판별합니다.
+    static String sniffExtension(byte[] header) {
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(header, 'R', 'I', 'F', 'F') && header.length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 이미 저장되어 있는 이미지 파일을 상품이 사용하기 시작할 때 호출합니다.(참조 개수 1 증가)
+    public synchronized void retain(String imageFileName) {
+        if (imageFileName == null || imageFileName.isBlank()) {
+            return;
+        }
+        references.merge(imageFileName, 1, Integer::sum);
+    }
+
+    // 상품이 이미지 파일을 더 이상 사용하지 않을 때 호출합니다.(참조 개수 1 감소)
+    // 파일은 바로 삭제하지 않습니다.(참조 개수가 0인 파일은 ProductImageGarbageCollector가 정리합니다.)
+    public synchronized void release(String imageFileName) {
+        if (imageFileName == null || imageFileName.isBlank()) {
+            return;
+        }
+
+        Integer count = references.get(imageFileName);
+        if (count != null && count > 1) {
+            references.put(imageFileName, count - 1);
+        } else {
+            references.remove(imageFileName);
+        }
+    }
+
+    /*
+        사용하지 않는 이미지 파일(또는 그 크기별 이미지)을 삭제하고, 삭제한 바이트 수를 반환합니다.
+        originalFileName : 삭제할 파일의 원본 이미지 파일 이름(원본 이미지이면 fileName과 동일)
+        정리 작업 도중에 같은 내용의 이미지가 다시 업로드되어 참조 개수가 늘었으면 삭제하지 않고 -1을 반환합니다.
+        (store()의 파일 이동과 이 메소드는 같은 잠금을 사용하므로 동시에 실행되지 않습니다.)
+    */
+    public synchronized long deleteIfUnreferenced(Path file, String originalFileName) throws IOException {
+        if (references.getOrDefault(originalFileName, 0) > 0) {
+            return -1;
+        }
+
+        long size = Files.size(file);
+        return Files.deleteIfExists(file) ? size : 0;
+    }
+
+    // 이미지 파일을 사용하는 상품 개수(테스트 및 관리용)
+    public synchronized int getReferenceCount(String imageFileName) {
+        return references.getOrDefault(imageFileName, 0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.coffee.service;
+
+import com.coffee.common.TtlLruCache;
+import com.coffee.constant.Category;
+import com.coffee.dto.SearchDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    상품 목록(/product/list) 조회 결과를 저장하는 캐시입니다.
+    무한 스크롤은 같은 검색 조건으로 여러 번 요청하지만, 상품 정보는 하루에 몇 번 밖에 바뀌지 않습니다.
+        pages : 검색 조건 + 페이지 정보 -> 해당 페이지의 조회 결과(Page 또는 Slice)
+        counts : 검색 조건 -> 전체 상품 개수(count 쿼리 결과, 페이지가 달라도 재사용합니다.)
+    상품이 등록/수정/삭제되면 ProductService가 invalidateAll()을 호출하여 전부 비웁니다.
+*/
+@Component
+public class ProductListCache {
+    private final TtlLruCache<String, Object> pages;
+    private final TtlLruCache<String, Long> counts;
+
+    // 캐시를 비울 때마다 1씩 증가합니다.
+    // 조회를 시작할 때의 세대(generation)와 저장할 때의 세대가 다르면, 그 사이에 상품이 변경된 것이므로 저장하지 않습니다.
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductListCache(@Value("${product.cache.list.max-size:1000}") int maxSize,
+                            @Value("${product.cache.list.ttl-seconds:300}") long ttlSeconds) {
+        this.pages = new TtlLruCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.counts = new TtlLruCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /*
+        검색 조건을 캐시 키로 정규화합니다.
+        같은 결과를 반환하는 검색 조건은 같은 키가 되도록 만듭니다.
+        예시) category가 null이거나 ALL이면 둘 다 "ALL", 키워드가 없으면 검색 모드는 무시
+    */
+    public String criteriaKey(SearchDto searchDto) {
+        String dateType = ProductSpecification.normalizeDateType(searchDto.getSearchDateType());
+        Category category = searchDto.getCategory() == null ? Category.ALL : searchDto.getCategory();
+
+        String keyword = searchDto.getSearchKeyword() == null ? "" : searchDto.getSearchKeyword().toLowerCase(Locale.ROOT);
+        String mode = searchDto.getSearchMode();
+        if (keyword.isEmpty() || !("name".equals(mode) || "description".equals(mode))) {
+            mode = "";
+            keyword = "";
+        }
+
+        return dateType + "|" + category + "|" + mode + "|" + keyword;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getPage(String pageKey) {
+        return (T) pages.get(pageKey);
+    }
+
+    public void putPage(String pageKey, Object page, long startGeneration) {
+        if (startGeneration == generation.get()) {
+            pages.put(pageKey, page);
+        }
+    }
+
+    public Long getCount(String criteriaKey) {
+        return counts.get(criteriaKey);
+    }
+
+    public void putCount(String criteriaKey, long count, long startGeneration) {
+        if (startGeneration == generation.get()) {
+            counts.put(criteriaKey, count);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        counts.invalidateAll();
+    }
+
+    // 캐시의 적중/미스 현황
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pages", pages.stats());
+        stats.put("counts", counts.stats());
+        stats.put("generation", generation.get());
+        return stats;
+    }
+}
@@ -0,0 +1,239 @@
+package com.coffee.service;
+
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+    상품 이름(name)과 상품 설명(description)에 대한 메모리 기반 역색인(inverted index)입니다.
+    like '%키워드%' 검색은 데이터 베이스의 인덱스를 사용하지 못하므로, 매 검색마다 products 테이블 전체를 읽습니다.
+    한글은 띄어쓰기만으로 단어를 나누기 어려우므로, 글자 1개(unigram)와 연속된 글자 2개(bigram)를 토큰으로 사용합니다.
+    예시) "아메리카노" -> 아, 메, 리, 카, 노, 아메, 메리, 리카, 카노
+
+    검색 순서
+        1. 키워드를 bigram(1글자 키워드는 unigram)으로 쪼개서 각 토큰의 상품 id 목록을 교집합 합니다.
+        2. 교집합 결과는 '후보'이므로, 원문에 키워드가 실제로 포함되어 있는지 다시 확인합니다.(like와 동일한 결과 보장)
+*/
+@Component
+public class ProductSearchIndex {
+    @Autowired
+    private ProductRepository productRepository;
+
+    // 검색 대상 필드별 색인입니다.(SearchDto의 searchMode 값과 동일한 이름을 사용합니다.)
+    // rebuild() 시에는 새로 만든 색인으로 교체합니다.
+    private FieldIndex nameIndex = new FieldIndex();
+    private FieldIndex descriptionIndex = new FieldIndex();
+
+    // 읽기(검색)는 동시에 여러 건, 쓰기(등록/수정/삭제)는 1건씩 처리합니다.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // index()/remove()가 호출될 때마다 1씩 증가합니다.(쓰기 잠금 안에서만 변경)
+    // rebuild()가 상품 목록을 읽는 동안 색인이 바뀌었는지 확인하는 용도입니다.
+    private long version = 0;
+
+    private static final int MAX_REBUILD_ATTEMPTS = 5;
+
+    // 애플리케이션 시작 후 색인 구축이 끝나야 true가 됩니다.
+    // 색인이 준비되기 전에는 ProductService가 기존의 like 검색을 사용합니다.
+    private volatile boolean ready = false;
+
+    // 애플리케이션이 구동되면, 데이터 베이스의 모든 상품 정보로 색인을 다시 만듭니다.
+    // 상품 목록을 읽는 도중에 등록/수정/삭제된 상품이 있으면, 읽은 목록이 이미 오래된 것이므로 다시 읽습니다.
+    // (그대로 교체하면 그 사이에 색인에 반영된 상품이 사라지거나 이전 내용으로 돌아갑니다.)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+            long startVersion = currentVersion();
+            List<Product> products = productRepository.findAll();
+
+            // 새 색인은 잠금 밖에서 만들고, 교체할 때만 쓰기 잠금을 사용합니다.
+            FieldIndex newNameIndex = new FieldIndex();
+            FieldIndex newDescriptionIndex = new FieldIndex();
+            for (Product product : products) {
+                newNameIndex.add(product.getId(), normalize(product.getName()));
+                newDescriptionIndex.add(product.getId(), normalize(product.getDescription()));
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (version == startVersion) {
+                    nameIndex = newNameIndex;
+                    descriptionIndex = newDescriptionIndex;
+                    ready = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // 색인이 준비되지 않은 동안에는 ProductService가 like 검색을 사용하므로 검색 결과는 올바릅니다.
+        System.err.println("상품 검색 색인 구축 실패 : 상품 변경이 계속되어 " + MAX_REBUILD_ATTEMPTS + "번 모두 다시 읽었습니다.");
+    }
+
+    private long currentVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 상품 등록 또는 수정 시 호출합니다.(기존 색인이 있으면 지우고 다시 추가합니다.)
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getId());
+            addInternal(product);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 상품 삭제 시 호출합니다.
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+        searchMode : "name" 또는 "description"
+        keyword : 검색 키워드
+        반환 값 : 키워드가 포함된 상품 id 목록, 지원하지 않는 검색 모드이면 null
+    */
+    public Set<Long> search(String searchMode, String keyword) {
+        String normalized = normalize(keyword);
+
+        lock.readLock().lock();
+        try {
+            FieldIndex fieldIndex = fieldIndexOf(searchMode);
+            return fieldIndex == null ? null : fieldIndex.search(normalized);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FieldIndex fieldIndexOf(String searchMode) {
+        if ("name".equals(searchMode)) {
+            return nameIndex;
+        } else if ("description".equals(searchMode)) {
+            return descriptionIndex;
+        }
+        return null;
+    }
+
+    private void addInternal(Product product) {
+        nameIndex.add(product.getId(), normalize(product.getName()));
+        descriptionIndex.add(product.getId(), normalize(product.getDescription()));
+    }
+
+    private void removeInternal(Long productId) {
+        nameIndex.remove(productId);
+        descriptionIndex.remove(productId);
+    }
+
+    // MySQL의 기본 collation처럼 대소문자를 구분하지 않도록 소문자로 변환합니다.
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // 문자열을 토큰(unigram + bigram)으로 쪼갭니다.
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            tokens.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                tokens.add(text.substring(i, i + 2));
+            }
+        }
+        return tokens;
+    }
+
+    // 필드 1개에 대한 색인 정보(토큰 -> 상품 id 목록)와 원문을 가지고 있는 내부 클래스입니다.
+    private static class FieldIndex {
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, String> documents = new HashMap<>();
+
+        void add(Long productId, String text) {
+            documents.put(productId, text);
+            for (String token : tokenize(text)) {
+                postings.computeIfAbsent(token, key -> new HashSet<>()).add(productId);
+            }
+        }
+
+        void remove(Long productId) {
+            String text = documents.remove(productId);
+            if (text == null) {
+                return;
+            }
+            for (String token : tokenize(text)) {
+                Set<Long> ids = postings.get(token);
+                if (ids != null) {
+                    ids.remove(productId);
+                    if (ids.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+
+        Set<Long> search(String keyword) {
+            if (keyword.isEmpty()) { // like '%%'와 같이 모든 상품이 해당됩니다.
+                return new HashSet<>(documents.keySet());
+            }
+
+            // 키워드의 토큰 목록 : 2글자 이상이면 bigram만, 1글자이면 unigram을 사용합니다.
+            List<Set<Long>> candidates = new ArrayList<>();
+            if (keyword.length() == 1) {
+                candidates.add(postings.getOrDefault(keyword, Collections.emptySet()));
+            } else {
+                for (int i = 0; i + 1 < keyword.length(); i++) {
+                    candidates.add(postings.getOrDefault(keyword.substring(i, i + 2), Collections.emptySet()));
+                }
+            }
+
+            // 가장 작은 목록부터 교집합을 구하면 비교 횟수가 줄어 듭니다.
+            candidates.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>();
+            for (Long productId : candidates.get(0)) {
+                boolean matched = true;
+                for (int i = 1; i < candidates.size() && matched; i++) {
+                    matched = candidates.get(i).contains(productId);
+                }
+
+                // bigram이 모두 있어도 순서가 다를 수 있으므로 원문을 다시 확인합니다.
+                if (matched && documents.get(productId).contains(keyword)) {
+                    result.add(productId);
+                }
+            }
+            return result;
+        }
+    }
+}
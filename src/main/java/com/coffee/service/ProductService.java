@@ -1,39 +1,75 @@
 package com.coffee.service;
 
+import com.coffee.dto.ProductCardDto;
+import com.coffee.dto.ProductSuggestionDto;
 import com.coffee.dto.SearchDto;
 import com.coffee.entity.Product;
 import com.coffee.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 @Service // 상품에 대한 여러 가지 로직 정보를 처리해주는 서비스 클래스입니다.
 public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex; // 상품 이름/설명 검색 색인
+
+    @Autowired
+    private ProductListCache productListCache; // 상품 목록 조회 결과 캐시
+
+    @Autowired
+    private ProductDetailCache productDetailCache; // 상품 상세 정보 캐시
+
+    @Autowired
+    private HomeSnapshotService homeSnapshotService; // 홈 페이지 상품 목록 스냅샷
+
+    @Autowired
+    private CatalogVersionService catalogVersionService; // ETag 생성을 위한 상품 버전 정보
+
+    @Autowired
+    private ProductFacetService productFacetService; // 카테고리별/기간별 상품 개수
+
+    @Autowired
+    private ProductSuggestService productSuggestService; // 검색창 자동 완성
+
+    @Autowired
+    private InventoryService inventoryService; // 메모리 재고(inventory.enabled=true일 때)
+
 //    public List<Product> getProductList() {
 //        return this.productRepository.findProductByOrderByIdDesc();
 //    }
 
     public boolean deleteProduct(Long id) {
         // existsById() 메소드와 deleteById() 메소드는 CrudRepository에 포함되어 있습니다.
-        if (productRepository.existsById(id)) { // 해당 항목이 존재하면
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isPresent()) { // 해당 항목이 존재하면
             this.productRepository.deleteById(id); // 삭제하기
+            afterProductDeleted(id);
+            runAfterCommit(() -> productImageStorage.release(product.get().getImage())); // 이미지 파일은 ProductImageGarbageCollector가 정리합니다.
             return true; // true의 의미는 "삭제 성공" 했습니다.
 
         } else { // 존재하지 않으면
@@ -42,57 +78,63 @@ public class ProductService {
     }
 
     // 상품 등록하기
-    @Value("${productImageLocation}")
-    private String productImageLocation; // 기본 값 : null
-
-    // Base64 인코딩 문자열을 변환하여 이미지로 만들고, 저장해주는 메소드입니다.
-    private String saveProductImage(String base64Image) {
-        // 데이터 베이스와 이미지 경로에 저장될 이미지의 이름
-        // 현재 시각을 '년월일시분' 포맷으로 변환 (예: 202510171430)
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
-        String formattedNow = LocalDateTime.now().format(formatter);
-
-        // 데이터 베이스와 이미지 경로에 저장될 이미지의 이름
-        String imageFileName = "product_" + formattedNow + ".jpg";
-
-        // String 클래스 공부 : endsWith(), split() 메소드
-
-        File imageFile = new File(productImageLocation  + imageFileName);
-
-        // base64Image : JavaScript FileReader API에 만들어진 이미지입니다.
-        // 메소드 체이닝 : 점을 연속적으로 찍어서 메소드를 계속 호출하는 것
-        byte[] decodedImage = Base64.getDecoder().decode(base64Image.split(",")[1]);
+    @Autowired
+    private ProductImageStorage productImageStorage; // 상품 이미지 파일 저장소
 
-        // FileOutputStream는 바이트 파일을 처리해주는 자바의 Stream 클래스
-        // 파일 정보를 byte 단위로 변환하여 이미지를 복사합니다.
-        try (FileOutputStream fos = new FileOutputStream(imageFile)) {
-            fos.write(decodedImage);
-            return imageFileName;
-        } catch (Exception e) {
-            throw new IllegalStateException("이미지 파일 저장 중 오류가 발생했습니다.");
-        }
-    }
+    @Autowired
+    private ImageVariantService imageVariantService; // 크기별(썸네일 등) 이미지 생성
 
+    // 상품 정보(json)의 image 항목에 Base64 이미지가 들어 있는 경우의 상품 등록
     public Product insertProduct(Product product) {
         if (product.getImage() != null && product.getImage().startsWith("data:image")) {
-            String imageFileName = saveProductImage(product.getImage());
+            String imageFileName = productImageStorage.storeBase64(product.getImage());
             product.setImage(imageFileName);
+        } else {
+            productImageStorage.retain(product.getImage()); // 이미 저장되어 있는 이미지 파일 이름을 사용하는 경우
         }
 
+        return saveNewProduct(product);
+    }
+
+    // 이미지 파일이 multipart로 따로 업로드된 경우의 상품 등록
+    public Product insertProduct(Product product, MultipartFile imageFile) {
+        product.setImage(productImageStorage.store(imageFile));
+        return saveNewProduct(product);
+    }
+
+    private Product saveNewProduct(Product product) {
         product.setInputdate(LocalDate.now());
         System.out.println("서비스)상품 등록 정보");
         System.out.println(product);
 
         // save() 메소드는 CrudRepository에 포함되어 있습니다.
-        return productRepository.save(product);
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.save(product);
+        } catch (RuntimeException err) {
+            productImageStorage.release(product.getImage()); // 저장할 때 올린 참조 개수를 되돌립니다.
+            throw err;
+        }
+        afterProductChanged(savedProduct);
+        runAfterCommit(() -> imageVariantService.generateAsync(savedProduct.getImage()));
+        return savedProduct;
     }
 
     // 상품 수정하기 get 방식 시작
+    // 조회 전용 메소드이므로 ProductDetailCache에 먼저 물어 보고, 없을 때만 데이터 베이스를 조회합니다.
+    // 주의) 반환된 객체는 여러 요청이 공유하므로 값을 변경하면 안됩니다.(수정용은 findById() 메소드 사용)
     public Product getProductById(Long id) {
+        Product cachedProduct = productDetailCache.get(id);
+        if (cachedProduct != null) {
+            return cachedProduct;
+        }
+
         // findById() 메소드는 CrudRepository에 포함되어 있습니다.
         // 그리고, Optional<>을 반환합니다.
         // Optional : 해당 상품이 있을 수도 있지만, 경우에 따라서 없을 수도 있습니다.
+        long generation = productDetailCache.currentGeneration();
         Optional<Product> product = this.productRepository.findById(id);
+        product.ifPresent(found -> productDetailCache.put(found, generation));
 
         // 의미 있는 데이터이면 그냥 넘기고, 그렇지 않으면 null을 반환해 줍니다.
         return product.orElse(null);
@@ -103,45 +145,173 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
-    // 이전 이미지 파일을 삭제하는 메소드
-    private void deleteOldImage(String oldImageFileName) {
-        if (oldImageFileName == null || oldImageFileName.isBlank()) {
-            return;
+    // Product 수정(상품 정보(json)의 image 항목에 Base64 이미지가 들어 있는 경우)
+    public Product updateProduct(Product savedProduct, Product updatedProduct) {
+        String newImageFileName = null;
+        if (updatedProduct.getImage() != null && updatedProduct.getImage().startsWith("data:image")) {
+            newImageFileName = productImageStorage.storeBase64(updatedProduct.getImage());
         }
 
-        File oldImageFile = new File(productImageLocation + oldImageFileName);
+        return applyUpdate(savedProduct, updatedProduct, newImageFileName);
+    }
 
-        if (oldImageFile.exists()) {
-            boolean deleted = oldImageFile.delete();
-            if (!deleted) {
-                System.err.println("기존 이미지 삭제 실패 : " + oldImageFileName);
-            }
+    // Product 수정(이미지 파일이 multipart로 따로 업로드된 경우, 이미지를 바꾸지 않으면 imageFile은 null)
+    public Product updateProduct(Product savedProduct, Product updatedProduct, MultipartFile imageFile) {
+        String newImageFileName = null;
+        if (imageFile != null && !imageFile.isEmpty()) {
+            newImageFileName = productImageStorage.store(imageFile);
         }
+
+        return applyUpdate(savedProduct, updatedProduct, newImageFileName);
     }
 
-    // Product 수정
-    public Product updateProduct(Product savedProduct, Product updatedProduct) {
+    private Product applyUpdate(Product savedProduct, Product updatedProduct, String newImageFileName) {
         savedProduct.setName(updatedProduct.getName());
         savedProduct.setPrice(updatedProduct.getPrice());
         savedProduct.setCategory(updatedProduct.getCategory());
         savedProduct.setStock(updatedProduct.getStock());
         savedProduct.setDescription(updatedProduct.getDescription());
 
-        if (updatedProduct.getImage() != null && updatedProduct.getImage().startsWith("data:image")) {
-            deleteOldImage(savedProduct.getImage());
-            String imageFileName = saveProductImage(updatedProduct.getImage());
-            savedProduct.setImage(imageFileName);
+        // 새 이미지를 먼저 저장한 다음, 이전 이미지 파일의 참조를 해제합니다.
+        String oldImageFileName = null;
+        if (newImageFileName != null) {
+            oldImageFileName = savedProduct.getImage();
+            savedProduct.setImage(newImageFileName);
+        }
+
+        Product result;
+        try {
+            result = productRepository.save(savedProduct);
+        } catch (RuntimeException err) {
+            productImageStorage.release(newImageFileName);
+            throw err;
         }
 
-        return productRepository.save(savedProduct);
+        // 같은 이미지를 다시 올린 경우에는 새 이미지와 이전 이미지가 같은 파일입니다.(참조 개수만 1 감소)
+        String releasedImageFileName = oldImageFileName;
+        runAfterCommit(() -> productImageStorage.release(releasedImageFileName));
+        afterProductChanged(result);
+        if (newImageFileName != null) {
+            runAfterCommit(() -> imageVariantService.generateAsync(newImageFileName));
+        }
+        return result;
     }
 
     public Optional<Product> findProductById(Long productId) {
         return productRepository.findById(productId);
     }
 
+    // 조회 쿼리 없이 상품 참조(프록시)만 반환합니다.(연관 관계 설정 용도, 상품이 존재하는지 미리 확인한 경우에만 사용)
+    public Product getProductReference(Long productId) {
+        return productRepository.getReferenceById(productId);
+    }
+
+    // 여러 상품을 1번의 쿼리로 조회합니다.(상품 id -> 상품)
+    public Map<Long, Product> findProductsByIds(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    // findProductsByIds()와 같지만, 트랜잭션이 끝날 때까지 다른 트랜잭션이 해당 상품을 변경하지 못하도록 잠급니다.
+    // 주의) 반드시 트랜잭션 안에서 호출해야 합니다.
+    public Map<Long, Product> findProductsByIdsForUpdate(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllByIdForUpdate(productIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    // 모든 상품의 재고가 충분할 때만 재고를 차감하고, 성공 여부를 반환합니다.(quantities : 상품 id -> 차감할 수량)
+    // 재고 확인과 차감을 update 문장 1개로 처리하므로, 동시에 주문이 들어와도 재고가 최소 재고(Product.MIN_STOCK) 아래로 내려가지 않습니다.
+    // 주의) 반드시 트랜잭션 안에서 호출해야 합니다.(실패하면 호출한 쪽에서 예외를 발생시켜 전체를 취소합니다.)
+    public boolean decreaseStocks(Map<Long, Integer> quantities) {
+        return productRepository.decreaseStocks(quantities) == quantities.size();
+    }
+
+    // 여러 상품의 재고를 update 문장 1개로 늘리고, 성공 여부를 반환합니다.(quantities : 상품 id -> 늘릴 수량, 주문 취소 시 재고 복원 용도)
+    // 늘린 후 최대 재고(Product.MAX_STOCK)를 넘는 상품이 있으면 false입니다.(넘는 부분을 버리지 않습니다.)
+    // 주의) 반드시 트랜잭션 안에서 호출해야 합니다.(실패하면 호출한 쪽에서 예외를 발생시켜 전체를 취소합니다.)
+    public boolean increaseStocks(Map<Long, Integer> quantities) {
+        boolean increased = productRepository.addStocks(quantities) == quantities.size();
+        productStockChanged(List.copyOf(quantities.keySet()));
+        return increased;
+    }
+
     public void save(Product product) {
         productRepository.save(product);
+        productStockChanged(List.of(product.getId()));
+    }
+
+    // 주문/주문 취소 등으로 상품의 재고가 바뀌었을 때 호출합니다.
+    // 트랜잭션 안에서 호출되면, 커밋이 끝난 다음에 캐시에서 제거합니다.
+    // (커밋 전에 제거하면, 그 사이에 다른 요청이 변경 전 재고를 다시 캐시에 넣을 수 있습니다.)
+    public void productStockChanged(Collection<Long> productIds) {
+        runAfterCommit(() -> {
+            productIds.forEach(productDetailCache::evict);
+            productListCache.invalidateAll(); // 목록과 홈 페이지 json에도 재고가 포함되어 있습니다.
+            homeSnapshotService.markDirty();
+            productIds.forEach(catalogVersionService::productChanged); // 캐시를 비운 다음에 버전을 올려야 합니다.
+        });
+    }
+
+    // 상품이 등록 또는 수정된 이후, 상품 정보를 복사해서 가지고 있는 색인과 캐시들을 갱신합니다.
+    private void afterProductChanged(Product product) {
+        runAfterCommit(() -> {
+            productSearchIndex.index(product); // 변경된 이름/설명으로 검색 색인 갱신
+            productFacetService.productChanged(product);
+            productSuggestService.index(product);
+            if (inventoryService.isEnabled()) {
+                inventoryService.productChanged(product.getId());
+            }
+            productDetailCache.evict(product.getId());
+            productListCache.invalidateAll();
+            homeSnapshotService.markDirty();
+            catalogVersionService.productChanged(product.getId()); // 캐시를 비운 다음에 버전을 올려야 합니다.
+        });
+    }
+
+    // 상품이 삭제된 이후, 색인과 캐시에서도 해당 상품을 제거합니다.
+    private void afterProductDeleted(Long productId) {
+        runAfterCommit(() -> {
+            productSearchIndex.remove(productId);
+            productFacetService.productDeleted(productId);
+            productSuggestService.remove(productId);
+            inventoryService.productDeleted(productId);
+            productDetailCache.evict(productId);
+            productListCache.invalidateAll();
+            homeSnapshotService.markDirty();
+            catalogVersionService.productChanged(productId);
+        });
+    }
+
+    // 진행 중인 트랜잭션이 있으면 커밋 이후에, 없으면 즉시 action을 실행합니다.
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // 상품 상세 캐시의 적중/미스 현황을 반환합니다.
+    public Map<String, Object> getDetailCacheStats() {
+        return productDetailCache.stats();
+    }
+
+    // 상품 목록 캐시의 적중/미스 현황을 반환합니다.
+    public Map<String, Object> getListCacheStats() {
+        return productListCache.stats();
     }
 
 //    public Page<Product> listProducts(Pageable pageable) {
@@ -149,7 +319,147 @@ public class ProductService {
 //    }
 
     // 필드 검색 조건과 페이징 기본 정보를 사용하여 상품 목록을 조회하는 로직을 작성합니다.
+    // 같은 검색 조건의 페이지와 전체 개수는 ProductListCache에 저장해 두었다가 재사용합니다.
     public Page<Product> listProducts(SearchDto searchDto, int pageNumber, int pageSize){
+        return findPage(searchDto, pageNumber, pageSize, "full", productRepository::findContent) ;
+    }
+
+    // listProducts()와 동일한 조건이지만, 목록 카드에 필요한 컬럼만 조회합니다.
+    public Page<ProductCardDto> listProductCards(SearchDto searchDto, int pageNumber, int pageSize){
+        return findPage(searchDto, pageNumber, pageSize, "card", productRepository::findCards) ;
+    }
+
+    // 커서 기반(keyset) 페이징으로 상품 목록을 조회합니다.
+    // offset 대신 "id < 마지막 id" 조건을 사용하므로 뒤쪽 페이지도 처음 페이지만큼 빠르며, count 쿼리를 실행하지 않습니다.
+    // lastId : 이전 페이지의 마지막 상품 id(첫 페이지이면 null)
+    public Slice<Product> listProductsAfter(SearchDto searchDto, Long lastId, int pageSize){
+        return findSlice(searchDto, lastId, pageSize, "full", productRepository::findContent) ;
+    }
+
+    // listProductsAfter()와 동일한 조건이지만, 목록 카드에 필요한 컬럼만 조회합니다.
+    public Slice<ProductCardDto> listProductCardsAfter(SearchDto searchDto, Long lastId, int pageSize){
+        return findSlice(searchDto, lastId, pageSize, "card", productRepository::findCards) ;
+    }
+
+    // 페이지 번호 방식의 공통 조회 로직입니다.
+    // view : 조회 형식("full" 또는 "card"), loader : 검색 조건과 페이지 정보로 해당 페이지의 목록을 읽어 오는 메소드
+    private <T> Page<T> findPage(SearchDto searchDto, int pageNumber, int pageSize, String view,
+                                 BiFunction<Specification<Product>, Pageable, List<T>> loader){
+        // 상품의 id를 역순으로 정렬하기
+        Sort sort = Sort.by(Sort.Order.desc("id")) ;
+
+        // pageNumber 페이지(0 base)를 보여 주시되, sort 방식으로 정렬하여 pageSize 개씩 보여 주세요.
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+
+        String criteriaKey = productListCache.criteriaKey(searchDto) ;
+        String pageKey = criteriaKey + "|" + view + "|page|" + pageNumber + "|" + pageSize ;
+
+        Page<T> cachedPage = productListCache.getPage(pageKey) ;
+        if(cachedPage != null){
+            return cachedPage ;
+        }
+
+        long generation = productListCache.currentGeneration() ;
+
+        // 키워드 검색은 검색 색인에서 모든 조건을 적용한 id 목록을 구한 다음, 해당 페이지의 id만 조회합니다.
+        List<Long> indexedIds = findIndexedIds(searchDto) ;
+        if(indexedIds != null){
+            int fromIndex = (int) Math.min(pageable.getOffset(), indexedIds.size()) ;
+            List<Long> pageIds = indexedIds.subList(fromIndex, Math.min(fromIndex + pageSize, indexedIds.size())) ;
+
+            List<T> content = pageIds.isEmpty() ? List.of()
+                    : loader.apply(ProductSpecification.hasIdIn(pageIds), PageRequest.of(0, pageSize, sort)) ;
+
+            Page<T> page = new PageImpl<>(content, pageable, indexedIds.size()) ;
+            productListCache.putPage(pageKey, page, generation);
+            return page ;
+        }
+
+        Specification<Product> spec = createSpecification(searchDto) ;
+
+        // 해당 페이지의 상품 목록만 조회하고, 전체 개수는 캐시에 없을 때만 count 쿼리로 구합니다.
+        List<T> content = loader.apply(spec, pageable) ;
+
+        Long total = productListCache.getCount(criteriaKey) ;
+        if(total == null){
+            total = this.productRepository.count(spec) ;
+            productListCache.putCount(criteriaKey, total, generation);
+        }
+
+        Page<T> page = new PageImpl<>(content, pageable, total) ;
+        productListCache.putPage(pageKey, page, generation);
+
+        return page ;
+    }
+
+    // 커서 방식의 공통 조회 로직입니다.
+    private <T> Slice<T> findSlice(SearchDto searchDto, Long lastId, int pageSize, String view,
+                                   BiFunction<Specification<Product>, Pageable, List<T>> loader){
+        String pageKey = productListCache.criteriaKey(searchDto) + "|" + view + "|cursor|" + lastId + "|" + pageSize ;
+
+        Slice<T> cachedSlice = productListCache.getPage(pageKey) ;
+        if(cachedSlice != null){
+            return cachedSlice ;
+        }
+
+        long generation = productListCache.currentGeneration() ;
+
+        // 다음 페이지 존재 여부를 알기 위하여 1건을 더 읽어 옵니다.
+        Sort sort = Sort.by(Sort.Order.desc("id")) ;
+        List<T> rows ;
+
+        // 키워드 검색은 검색 색인에서 모든 조건을 적용한 id 목록(id 역순) 중 lastId 다음의 id만 조회합니다.
+        List<Long> indexedIds = findIndexedIds(searchDto) ;
+        if(indexedIds != null){
+            int fromIndex = 0 ;
+            if(lastId != null){ // id 역순으로 정렬되어 있으므로 이진 탐색으로 lastId 다음 위치를 찾습니다.
+                int position = Collections.binarySearch(indexedIds, lastId, Comparator.reverseOrder()) ;
+                fromIndex = position >= 0 ? position + 1 : -position - 1 ;
+            }
+            List<Long> pageIds = indexedIds.subList(fromIndex, Math.min(fromIndex + pageSize + 1, indexedIds.size())) ;
+
+            rows = pageIds.isEmpty() ? List.of()
+                    : loader.apply(ProductSpecification.hasIdIn(pageIds), PageRequest.of(0, pageSize + 1, sort)) ;
+
+        }else{
+            Specification<Product> spec = createSpecification(searchDto) ;
+            if(lastId != null){
+                spec = spec.and(ProductSpecification.hasIdLessThan(lastId));
+            }
+            rows = loader.apply(spec, PageRequest.of(0, pageSize + 1, sort)) ;
+        }
+
+        boolean hasNext = rows.size() > pageSize ;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows ;
+
+        Slice<T> slice = new SliceImpl<>(content, PageRequest.of(0, pageSize, sort), hasNext) ;
+        productListCache.putPage(pageKey, slice, generation);
+
+        return slice ;
+    }
+
+    /*
+        키워드 검색이면 검색 색인의 결과(상품 id 목록)에 기간/카테고리 조건을 메모리에서 적용하여 id 역순으로 반환합니다.
+        데이터 베이스에는 한 페이지 분량의 id만 in 조건으로 보내므로, 일치하는 상품이 아무리 많아도 like 검색이나 긴 in 목록이 필요 없습니다.
+        키워드가 없거나, 색인이 아직 준비되지 않았으면 null을 반환합니다.(createSpecification()의 조건으로 조회)
+    */
+    private List<Long> findIndexedIds(SearchDto searchDto){
+        String searchMode = searchDto.getSearchMode() ;
+        String searchKeyword = searchDto.getSearchKeyword() ;
+        if(searchMode == null || searchKeyword == null || searchKeyword.isEmpty()){
+            return null ;
+        }
+        if(!productSearchIndex.isReady() || !productFacetService.isReady()){
+            return null ;
+        }
+
+        Set<Long> matchedIds = productSearchIndex.search(searchMode, searchKeyword) ;
+        return productFacetService.filterIds(matchedIds, searchDto.getSearchDateType(), searchDto.getCategory()) ;
+    }
+
+    // 검색 조건(SearchDto)을 Specification으로 변환합니다.
+    // 키워드 조건은 검색 색인을 사용할 수 없을 때만(애플리케이션 구동 직후) like 검색으로 추가합니다.
+    private Specification<Product> createSpecification(SearchDto searchDto){
         // Specification는 엔터티 객체에 대한 쿼리 조건을 정의할 수 있는 조건자(Specification)로 사용됩니다.
         Specification<Product> spec = Specification.where(null) ; // null은 현재 어떠한 조건도 없음을 의미합니다.
 
@@ -167,27 +477,35 @@ public class ProductService {
         String searchMode = searchDto.getSearchMode() ;
         String searchKeyword = searchDto.getSearchKeyword() ;
 
-        if(searchMode != null && searchKeyword != null){
-            if("name".equals(searchMode)){ // 상품명으로 검색
+        if(searchMode != null && searchKeyword != null && !searchKeyword.isEmpty()){
+            if("name".equals(searchMode)){ // 색인 구축 전 : 상품명으로 검색
                 spec = spec.and(ProductSpecification.hasNameLike(searchKeyword));
 
-            }else if("description".equals(searchMode)){ // 상품 설명으로 검색
+            }else if("description".equals(searchMode)){ // 색인 구축 전 : 상품 설명으로 검색
                 spec = spec.and(ProductSpecification.hasDescriptionLike(searchKeyword));
             }
         }
-        // 상품의 id를 역순으로 정렬하기
-        Sort sort = Sort.by(Sort.Order.desc("id")) ;
 
-        // pageNumber 페이지(0 base)를 보여 주시되, sort 방식으로 정렬하여 pageSize 개씩 보여 주세요.
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+        return spec ;
+    }
 
-        return this.productRepository.findAll(spec, pageable) ;
+    // 현재 키워드에 대한 기간 검색 값별, 카테고리별 상품 개수를 반환합니다.
+    public Map<String, Map<String, Long>> getFacets(String searchMode, String searchKeyword) {
+        return productFacetService.getFacets(searchMode, searchKeyword);
     }
 
-    public List<Product> getProductsByFilter(String filter) {
-        if(filter != null && !filter.isEmpty()){
-            return productRepository.findByImageContaining(filter);
-        }
-        return productRepository.findAll();
+    // 상품 상세 보기 조회 수를 기록합니다.(자동 완성 인기도)
+    public void recordView(Long productId) {
+        productSuggestService.recordView(productId);
+    }
+
+    // 검색창에 입력 중인 문자열로 시작하는 상품 이름을 인기도 순서로 최대 limit개 반환합니다.
+    public List<ProductSuggestionDto> suggest(String query, int limit) {
+        return productSuggestService.suggest(query, limit);
+    }
+
+    // 홈 페이지에 보여줄 상품 목록의 json 스냅샷을 반환합니다.(filter가 있으면 이미지 이름에 filter가 포함된 상품만)
+    public HomeSnapshotService.Snapshot getHomeSnapshot(String filter) {
+        return homeSnapshotService.getSnapshot(filter);
     }
 }
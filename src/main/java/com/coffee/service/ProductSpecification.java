@@ -10,6 +10,8 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Locale;
 
 // Creteria : 판단이나 결정을 짓기 위한 기준
 // Specification : JPA의 Creteria API를 사용하여 where 절(검색 조건)을 객체 지향적으로 만들기 위하여 사용되는 인터페이스입니다.
@@ -29,7 +31,7 @@ public class ProductSpecification {
                 LocalDateTime startDate = null ; // 검색 시작 일자
 
                 // 선택한 콤보 박스의 값을 보고, 검색 시작 일자를 계산합니다.
-                switch (searchDateType){
+                switch (normalizeDateType(searchDateType)){
                     case "1d":
                         startDate = now.minus(1, ChronoUnit.DAYS) ;
                         break;
@@ -52,6 +54,12 @@ public class ProductSpecification {
         };
     }
 
+    // 기간 검색 콤보 박스 값의 표기를 맞춥니다.(null이면 all, 앞뒤 공백 제거 및 소문자로 변환)
+    // 검색 조건과 ProductListCache의 캐시 키가 같은 값을 사용해야, 같은 캐시 항목이 항상 같은 결과를 가집니다.
+    public static String normalizeDateType(String searchDateType){
+        return searchDateType == null ? "all" : searchDateType.trim().toLowerCase(Locale.ROOT) ;
+    }
+
     /*
         사용자가 지정한 특정 카테코리에 속하는 상품 목록만 필터링해주는 Specification입니다.
         category : 검색할 카테고리 문자열
@@ -101,4 +109,32 @@ public class ProductSpecification {
             }
         };
     }
+
+    /*
+        검색 색인(ProductSearchIndex)에서 찾은 상품 id 목록에 포함된 상품만 필터링해주는 Specification입니다.
+        ids : 키워드 검색 결과에 해당하는 상품 id 목록
+        반환 값 : 해당 id 목록의 상품들을 조회하기 위한 Specification 객체 정보
+    */
+    public static Specification<Product> hasIdIn(Collection<Long> ids){
+        return new Specification<Product>() {
+            @Override
+            public Predicate toPredicate(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return root.get("id").in(ids);
+            }
+        };
+    }
+
+    /*
+        커서 기반 페이징에서 마지막으로 조회한 상품 id보다 작은 상품만 필터링해주는 Specification입니다.
+        lastId : 이전 페이지에서 마지막으로 조회한 상품 id
+        반환 값 : id가 lastId보다 작은 상품 목록을 조회하기 위한 Specification 객체 정보
+    */
+    public static Specification<Product> hasIdLessThan(Long lastId){
+        return new Specification<Product>() {
+            @Override
+            public Predicate toPredicate(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return criteriaBuilder.lessThan(root.get("id"), lastId);
+            }
+        };
+    }
 }
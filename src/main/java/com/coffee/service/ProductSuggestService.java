@@ -0,0 +1,248 @@
+package com.coffee.service;
+
+import com.coffee.dto.ProductSuggestionDto;
+import com.coffee.entity.Product;
+import com.coffee.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+    검색창의 자동 완성(typeahead) 목록을 만들어 주는 서비스입니다.
+    상품 이름을 정렬된 맵(TreeMap)에 넣어 두고, 입력한 글자로 시작하는 상품을 범위 검색(subMap)으로 찾습니다.
+        - 상품 이름의 각 단어 시작 위치부터 색인합니다. 예시) "카페 라떼" -> "카페 라떼", "라떼"
+        - 한글 초성 검색을 지원합니다. 예시) "ㅋㅍ" -> "카페 라떼", "카ㅍ" -> "카페 라떼"
+    검색 결과는 인기도(상세 보기 조회 수)가 높은 순서로 정렬합니다.
+    상품이 등록/수정/삭제되면 ProductService가 index()/remove()를 호출하여 갱신합니다.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+    // 유니코드 한글 음절의 초성 19자
+    private static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+    private static final char HANGUL_FIRST = '가';
+    private static final char HANGUL_LAST = '힣';
+    private static final int SYLLABLES_PER_CHOSEONG = 21 * 28; // 중성 21개 * 종성 28개
+
+    // 키 1개가 너무 많은 상품과 일치할 때(예: 초성 1글자) 확인할 최대 키 개수
+    private static final int MAX_SCANNED_KEYS = 2000;
+
+    private final ProductRepository productRepository;
+
+    private final TreeMap<String, Set<Long>> nameKeys = new TreeMap<>(); // 소문자 이름 -> 상품 id 목록
+    private final TreeMap<String, Set<Long>> choseongKeys = new TreeMap<>(); // 초성으로 바꾼 이름 -> 상품 id 목록
+    private final Map<Long, String> names = new HashMap<>(); // 상품 id -> 상품 이름
+
+    // 상품 id -> 인기도(조회 수), 상세 보기마다 증가하므로 잠금(lock) 없이 사용할 수 있는 LongAdder를 사용합니다.
+    private final Map<Long, LongAdder> popularity = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 애플리케이션이 구동되면, 상품 id와 이름만 조회하여 색인을 만듭니다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = productRepository.findSuggestRows();
+
+        lock.writeLock().lock();
+        try {
+            nameKeys.clear();
+            choseongKeys.clear();
+            names.clear();
+            for (Object[] row : rows) {
+                addInternal((Long) row[0], (String) row[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getId());
+            addInternal(product.getId(), product.getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            popularity.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 상품 상세 보기가 요청될 때마다 해당 상품의 인기도를 1 올려 줍니다.
+    // 주의) 존재하는 상품에 대해서만 호출해야 합니다.
+    public void recordView(Long productId) {
+        popularity.computeIfAbsent(productId, key -> new LongAdder()).increment();
+    }
+
+    /*
+        query : 검색창에 입력 중인 문자열
+        limit : 최대 추천 개수
+        반환 값 : 인기도가 높은 순서로 정렬된 추천 상품 목록
+    */
+    public List<ProductSuggestionDto> suggest(String query, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // 초성(ㄱ~ㅎ)이 하나라도 들어 있으면 초성 맵에서 후보를 찾고, 글자 단위로 다시 확인합니다.
+        boolean hasJamo = normalized.chars().anyMatch(ch -> isChoseong((char) ch));
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            if (hasJamo) {
+                collect(choseongKeys, toChoseong(normalized), candidates, normalized);
+            } else {
+                collect(nameKeys, normalized, candidates, null);
+            }
+
+            return candidates.stream()
+                    .sorted(Comparator.<Long>comparingLong(this::popularityOf).reversed()
+                            .thenComparing(names::get))
+                    .limit(limit)
+                    .map(id -> new ProductSuggestionDto(id, names.get(id)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long popularityOf(Long productId) {
+        LongAdder views = popularity.get(productId);
+        return views == null ? 0 : views.sum();
+    }
+
+    // prefix로 시작하는 키의 상품 id들을 candidates에 담습니다.
+    // jamoQuery가 있으면, 상품 이름이 초성이 섞인 입력 값과 글자 단위로 일치하는지 다시 확인합니다.
+    private void collect(TreeMap<String, Set<Long>> keys, String prefix, Set<Long> candidates, String jamoQuery) {
+        int scanned = 0;
+        for (Map.Entry<String, Set<Long>> entry : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            if (++scanned > MAX_SCANNED_KEYS) {
+                break;
+            }
+            for (Long productId : entry.getValue()) {
+                if (jamoQuery == null || matchesJamo(names.get(productId), jamoQuery)) {
+                    candidates.add(productId);
+                }
+            }
+        }
+    }
+
+    // 상품 이름의 단어 시작 위치 중 하나에서, 입력 값의 각 글자가 그대로 같거나 초성이 같으면 일치합니다.
+    private boolean matchesJamo(String name, String jamoQuery) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        for (int start : wordStarts(lowerName)) {
+            if (lowerName.length() - start < jamoQuery.length()) {
+                continue;
+            }
+
+            boolean matched = true;
+            for (int i = 0; i < jamoQuery.length() && matched; i++) {
+                char q = jamoQuery.charAt(i);
+                char c = lowerName.charAt(start + i);
+                matched = q == c || (isChoseong(q) && toChoseong(c) == q);
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addInternal(Long productId, String name) {
+        if (productId == null || name == null || name.isBlank()) {
+            return;
+        }
+
+        names.put(productId, name);
+        for (String key : keysOf(name)) {
+            nameKeys.computeIfAbsent(key, k -> new HashSet<>()).add(productId);
+            choseongKeys.computeIfAbsent(toChoseong(key), k -> new HashSet<>()).add(productId);
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        String name = names.remove(productId);
+        if (name == null) {
+            return;
+        }
+
+        for (String key : keysOf(name)) {
+            removeKey(nameKeys, key, productId);
+            removeKey(choseongKeys, toChoseong(key), productId);
+        }
+    }
+
+    private void removeKey(TreeMap<String, Set<Long>> keys, String key, Long productId) {
+        Set<Long> ids = keys.get(key);
+        if (ids != null) {
+            ids.remove(productId);
+            if (ids.isEmpty()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    // 상품 이름의 각 단어 시작 위치부터 끝까지를 키로 사용합니다.
+    private List<String> keysOf(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        List<String> keys = new ArrayList<>();
+        for (int start : wordStarts(lowerName)) {
+            keys.add(lowerName.substring(start));
+        }
+        return keys;
+    }
+
+    private List<Integer> wordStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    // 한글 음절은 초성으로 바꾸고, 나머지 글자는 그대로 둡니다. 예시) "카페 라떼" -> "ㅋㅍ ㄹㄸ"
+    private static String toChoseong(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            builder.append(toChoseong(text.charAt(i)));
+        }
+        return builder.toString();
+    }
+
+    private static char toChoseong(char ch) {
+        if (ch >= HANGUL_FIRST && ch <= HANGUL_LAST) {
+            return CHOSEONG[(ch - HANGUL_FIRST) / SYLLABLES_PER_CHOSEONG];
+        }
+        return ch;
+    }
+
+    private static boolean isChoseong(char ch) {
+        for (char choseong : CHOSEONG) {
+            if (choseong == ch) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,159 @@
+package com.coffee.service;
+
+import com.coffee.dto.SalesStatsDto;
+import com.coffee.entity.Order;
+import com.coffee.entity.OrderProduct;
+import com.coffee.repository.OrderRepository;
+import com.coffee.repository.SalesDailyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+    날짜별, 상품별 판매 수량과 매출(sales_daily 테이블)을 관리합니다.
+        - 주문 생성/취소 시 OrderService가 같은 트랜잭션 안에서 호출하므로, 주문이 롤백되면 합계도 함께 롤백됩니다.
+        - 주문 1건(또는 묶음 1개)당 insert ... on duplicate key update 문장 1개만 추가로 실행합니다.
+        - 주문 상태가 주문 대기 -> 주문 완료로 바뀌는 것은 합계에 영향이 없습니다.(취소되지 않은 주문을 모두 합산)
+        - rebuild()는 주문 내역 전체를 날짜 단위로 읽어서 합계를 처음부터 다시 계산합니다.(날짜마다 짧은 트랜잭션 1개)
+*/
+@Service
+public class SalesRollupService {
+    private final OrderRepository orderRepository;
+    private final SalesDailyRepository salesDailyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean backfillOnStartup;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // 재계산 진행 상황(이 날짜까지 다시 계산한 합계가 커밋되었습니다. 재계산 중이 아니면 null)
+    private volatile LocalDate rebuildWatermark;
+
+    public SalesRollupService(OrderRepository orderRepository,
+                              SalesDailyRepository salesDailyRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${sales.rollup.enabled:true}") boolean enabled,
+                              @Value("${sales.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.orderRepository = orderRepository;
+        this.salesDailyRepository = salesDailyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    // 합계 테이블이 비어 있는데 주문 내역이 있으면(처음 배포한 경우 등) 주문 내역으로 합계를 채웁니다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (enabled && backfillOnStartup && salesDailyRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    // 새로 저장하는 주문들의 판매 수량과 매출을 더합니다.(주문 생성 트랜잭션 안에서 호출)
+    public void recordOrders(List<Order> orders) {
+        if (!enabled || orders.isEmpty()) {
+            return;
+        }
+
+        // (날짜, 상품 id) 순으로 정렬해서 합산합니다.(같은 행을 갱신하는 트랜잭션끼리 항상 같은 순서로 잠급니다.)
+        Map<LocalDate, Map<Long, long[]>> totals = new TreeMap<>();
+        for (Order order : orders) {
+            Map<Long, long[]> byProduct = totals.computeIfAbsent(order.getOrderdate(), date -> new TreeMap<>());
+            for (OrderProduct op : order.getOrderProducts()) {
+                long[] total = byProduct.computeIfAbsent(op.getProduct().getId(), id -> new long[2]);
+                total[0] += op.getQuantity();
+                total[1] += (long) op.getQuantity() * op.getPrice();
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        totals.forEach((date, byProduct) -> byProduct.forEach((productId, total) ->
+                rows.add(new Object[]{date, productId, total[0], total[1]})));
+        salesDailyRepository.addSales(rows);
+    }
+
+    /*
+        취소하는 주문들의 판매 수량과 매출을 뺍니다.(주문 취소 트랜잭션 안에서 호출)
+        salesRows : OrderRepository.sumSalesByOrderIds()의 결과([주문 날짜, 상품 id, 수량 합계, 매출 합계], 날짜/상품 순)
+    */
+    public void cancelSales(List<Object[]> salesRows) {
+        if (!enabled || salesRows.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] row : salesRows) {
+            rows.add(new Object[]{row[0], row[1], -((Number) row[2]).longValue(), -((Number) row[3]).longValue()});
+        }
+        salesDailyRepository.addSales(rows);
+    }
+
+    /*
+        주문 내역 전체로 판매 합계를 다시 계산합니다.(반환 값 : 다시 계산한 날짜의 개수, 이미 실행 중이면 -1)
+        테이블 전체를 하나의 트랜잭션으로 지우고 다시 채우면, 그 동안 합계 행을 갱신하려는 주문이 모두 대기하게 됩니다.
+        그래서 날짜마다 따로 트랜잭션을 만들어서 "그 날의 합계 행 삭제 -> 그 날의 주문 합산 -> 합계 행 추가"를 처리하고 바로 커밋합니다.
+            - 잠기는 행은 처리 중인 하루치 합계 행뿐이며, 그 날짜의 주문만 잠시 대기합니다.
+            - 합계 행을 먼저 삭제(잠금)한 다음 주문을 읽으므로, 동시에 커밋된 주문도 빠지거나 두 번 더해지지 않습니다.
+            - 진행 상황(마지막으로 커밋한 날짜)은 rebuildWatermark로 확인할 수 있습니다.
+        합계 테이블에만 있고 주문이 없는 날짜(삭제된 주문 등)의 합계 행도 함께 정리됩니다.
+    */
+    public long rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        try {
+            TreeSet<LocalDate> dates = new TreeSet<>(orderRepository.findDistinctOrderDates());
+            dates.addAll(salesDailyRepository.findDistinctSalesDates());
+
+            for (LocalDate date : dates) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    salesDailyRepository.deleteBySalesDate(date);
+                    salesDailyRepository.addSales(orderRepository.sumSalesOnDate(date));
+                });
+                rebuildWatermark = date;
+            }
+
+            return dates.size();
+
+        } finally {
+            rebuildWatermark = null;
+            rebuilding.set(false);
+        }
+    }
+
+    // 재계산 중이면 마지막으로 다시 계산한 날짜, 아니면 null
+    public LocalDate getRebuildWatermark() {
+        return rebuildWatermark;
+    }
+
+    // 기간(양 끝 포함)의 매출 통계를 합계 테이블에서 조회합니다.(주문 내역은 읽지 않습니다.)
+    public SalesStatsDto getSales(LocalDate fromDate, LocalDate toDate) {
+        List<SalesStatsDto.Daily> daily = new ArrayList<>();
+        long units = 0, revenue = 0;
+        for (Object[] row : salesDailyRepository.sumByDate(fromDate, toDate)) {
+            SalesStatsDto.Daily day = new SalesStatsDto.Daily((LocalDate) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+            units += day.getUnits();
+            revenue += day.getRevenue();
+            daily.add(day);
+        }
+
+        List<SalesStatsDto.ProductSales> products = new ArrayList<>();
+        for (Object[] row : salesDailyRepository.sumByProduct(fromDate, toDate)) {
+            products.add(new SalesStatsDto.ProductSales((Long) row[0], (String) row[1],
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue()));
+        }
+
+        return new SalesStatsDto(fromDate, toDate, units, revenue, daily, products);
+    }
+}
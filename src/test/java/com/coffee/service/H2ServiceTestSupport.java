@@ -0,0 +1,96 @@
+package com.coffee.service;
+
+import com.coffee.constant.Category;
+import com.coffee.constant.OrderStatus;
+import com.coffee.constant.Role;
+import com.coffee.dto.OrderDto;
+import com.coffee.dto.OrderItemDto;
+import com.coffee.entity.Member;
+import com.coffee.entity.Product;
+import com.coffee.repository.MemberRepository;
+import com.coffee.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    MySQL 없이 실행할 수 있도록 H2 메모리 데이터 베이스를 사용하는 서비스 테스트의 공통 부모 클래스입니다.
+    설정이 모두 같으므로 테스트 클래스들이 스프링 컨텍스트 1개를 함께 사용합니다.
+    (데이터 베이스도 함께 사용하므로, 테스트마다 다른 이메일/상품 이름으로 데이터를 만들어야 합니다.)
+*/
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:coffee_service_test;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "productImageLocation=${java.io.tmpdir}/coffee-test-images"
+})
+abstract class H2ServiceTestSupport {
+    @Autowired
+    protected OrderService orderService;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected MemberRepository memberRepository;
+
+    protected Member createMember(String email) {
+        Member member = new Member();
+        member.setName("테스트");
+        member.setEmail(email);
+        member.setPassword("Password1!");
+        member.setAddress("서울시 마포구");
+        member.setRole(Role.USER);
+        member.setRegdate(LocalDate.now());
+        return memberRepository.save(member);
+    }
+
+    protected Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(1000);
+        product.setCategory(Category.BEVERAGE);
+        product.setStock(stock);
+        product.setImage("test.jpg");
+        product.setDescription("테스트 상품입니다.");
+        product.setInputdate(LocalDate.now());
+        return productRepository.save(product);
+    }
+
+    // 상품 1개를 quantity개 주문합니다.
+    protected OrderDto createOrderDto(Long memberId, Long productId, int quantity) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+
+        OrderDto dto = new OrderDto();
+        dto.setMemberId(memberId);
+        dto.setStatus(OrderStatus.PENDING);
+        dto.setOrderItems(new ArrayList<>(List.of(item)));
+        return dto;
+    }
+
+    // 여러 상품을 1개씩 주문합니다.
+    protected OrderDto createOrderDto(Long memberId, List<Product> products) {
+        List<OrderItemDto> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderItemDto item = new OrderItemDto();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+
+        OrderDto dto = new OrderDto();
+        dto.setMemberId(memberId);
+        dto.setStatus(OrderStatus.PENDING);
+        dto.setOrderItems(items);
+        return dto;
+    }
+}
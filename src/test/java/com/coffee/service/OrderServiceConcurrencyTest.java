@@ -0,0 +1,94 @@
+package com.coffee.service;
+
+import com.coffee.dto.OrderDto;
+import com.coffee.dto.OrderItemDto;
+import com.coffee.entity.Member;
+import com.coffee.entity.Product;
+import com.coffee.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 여러 스레드가 동시에 주문할 때 재고가 정확하게 차감되는지 확인합니다.
+class OrderServiceConcurrencyTest extends H2ServiceTestSupport {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 같은 상품을 주문해도 최소 재고를 남기고 그 이상은 팔리지 않습니다.")
+    void concurrentOrdersNeverOversell() throws Exception {
+        int stock = 110;
+        int sellable = stock - Product.MIN_STOCK;
+        int threads = 16;
+        int attempts = 300;
+
+        Member member = createMember("stress@abc.com");
+        Product product = createProduct("동시성 테스트 커피", stock);
+        long ordersBefore = orderRepository.count();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Throwable> unexpected = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await(); // 모든 작업이 최대한 동시에 시작하도록 대기합니다.
+                    orderService.createOrder(createOrderDto(member.getId(), product.getId(), 1));
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException err) {
+                    soldOut.incrementAndGet();
+                } catch (Throwable err) {
+                    synchronized (unexpected) {
+                        unexpected.add(err);
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertTrue(unexpected.isEmpty(), () -> "예상하지 못한 오류 : " + unexpected);
+        assertEquals(sellable, succeeded.get());
+        assertEquals(attempts - sellable, soldOut.get());
+        assertEquals(Product.MIN_STOCK, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertEquals(ordersBefore + sellable, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("주문 상품 중 하나라도 재고가 부족하면, 다른 상품의 재고 차감도 취소됩니다.")
+    void insufficientStockRollsBackWholeOrder() {
+        Member member = createMember("rollback@abc.com");
+        Product enough = createProduct("재고 충분 커피", 50);
+        Product scarce = createProduct("재고 부족 케이크", 20); // 최소 재고 10개를 빼면 10개까지만 판매 가능
+        long ordersBefore = orderRepository.count();
+
+        OrderDto dto = createOrderDto(member.getId(), enough.getId(), 5);
+        OrderItemDto scarceItem = new OrderItemDto();
+        scarceItem.setProductId(scarce.getId());
+        scarceItem.setQuantity(11);
+        dto.getOrderItems().add(scarceItem);
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(dto));
+
+        assertEquals(50, productRepository.findById(enough.getId()).orElseThrow().getStock());
+        assertEquals(20, productRepository.findById(scarce.getId()).orElseThrow().getStock());
+        assertEquals(ordersBefore, orderRepository.count());
+    }
+}
@@ -0,0 +1,60 @@
+package com.coffee.service;
+
+import com.coffee.constant.Role;
+import com.coffee.dto.OrderDetailDto;
+import com.coffee.entity.Member;
+import com.coffee.entity.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 주문 목록 조회 시 주문/주문 상품 개수와 관계 없이 쿼리가 2번만 실행되는지 Hibernate 통계로 확인합니다.
+class OrderServiceQueryCountTest extends H2ServiceTestSupport {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("주문 목록 조회는 주문 개수와 관계 없이 쿼리 2번으로 끝납니다.")
+    void orderListUsesTwoQueries() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            products.add(createProduct("쿼리 테스트 상품" + i, 100));
+        }
+
+        List<Member> members = List.of(createMember("query1@abc.com"), createMember("query2@abc.com"));
+        for (Member member : members) {
+            for (int i = 0; i < 5; i++) {
+                orderService.createOrder(createOrderDto(member.getId(), products));
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // 관리자 : 전체 주문 목록
+        statistics.clear();
+        List<OrderDetailDto> allOrders = orderService.getOrderListByRole(null, Role.ADMIN);
+
+        assertTrue(allOrders.size() >= 10);
+        assertEquals(products.size(), allOrders.get(0).getOrderItems().size());
+        assertEquals("쿼리 테스트 상품0", allOrders.get(0).getOrderItems().get(0).getProductName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // 일반 사용자 : 본인 주문 목록
+        statistics.clear();
+        List<OrderDetailDto> myOrders = orderService.getOrderListByRole(members.get(0).getId(), Role.USER);
+
+        assertEquals(5, myOrders.size());
+        assertTrue(myOrders.stream().allMatch(order -> "테스트".equals(order.getName())));
+        assertTrue(myOrders.get(0).getOrderId() > myOrders.get(4).getOrderId()); // 최신 주문부터
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}